@@ -0,0 +1,324 @@
+package com.github.teocci.virtualjoystick.dispatch;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import com.github.teocci.virtualjoystick.interfaces.OnDispatchListener;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Process-wide scheduler that fires every registered OnDispatchListener at its own interval.
+ * All the ticks run on the main thread, so there is no thread to start per gesture and no
+ * Runnable to post per tick. When frame alignment is enabled (and available) the ticks are
+ * delivered from a Choreographer frame callback, so they land right before a frame is drawn.
+ *
+ * This class is not thread-safe, it must only be used from the main thread.
+ */
+public class DispatchScheduler
+{
+    /**
+     * Initial capacity of the listener table, it grows only when registering
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    private static DispatchScheduler instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable tickRunnable;
+    private FrameTicker frameTicker;
+
+    private OnDispatchListener[] listeners = new OnDispatchListener[INITIAL_CAPACITY];
+    private long[] intervals = new long[INITIAL_CAPACITY];
+    private long[] nextDispatch = new long[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * Used to avoid compacting the listener table while it is being iterated
+     */
+    private boolean dispatching;
+    private boolean scheduled;
+
+    private boolean frameAligned = true;
+
+    /**
+     * Number of ticks run since the last reset, to check that nothing wakes up while idle
+     */
+    private long wakeupCount;
+
+    private DispatchScheduler()
+    {
+        tickRunnable = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                scheduled = false;
+                tick(SystemClock.uptimeMillis());
+            }
+        };
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            frameTicker = new FrameTicker();
+        }
+    }
+
+    /**
+     * Return the scheduler shared by all the joysticks of this process.
+     *
+     * @return the shared DispatchScheduler
+     */
+    public static DispatchScheduler getInstance()
+    {
+        if (instance == null) {
+            instance = new DispatchScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Register a listener to be invoked every interval. If the listener is already registered
+     * only its interval is updated. The first tick is fired after one interval.
+     *
+     * @param l              the listener to invoke
+     * @param intervalMillis the interval between two ticks in milliseconds
+     */
+    public void register(OnDispatchListener l, long intervalMillis)
+    {
+        if (l == null) return;
+
+        long now = SystemClock.uptimeMillis();
+        long interval = Math.max(1, intervalMillis);
+
+        int index = indexOf(l);
+        if (index < 0) {
+            if (!dispatching) compact();
+            if (count == listeners.length) grow();
+            index = count++;
+            listeners[index] = l;
+        }
+
+        intervals[index] = interval;
+        nextDispatch[index] = now + interval;
+
+        reschedule();
+    }
+
+    /**
+     * Stop invoking the given listener. Does nothing if it is not registered.
+     *
+     * @param l the listener to remove
+     */
+    public void unregister(OnDispatchListener l)
+    {
+        int index = indexOf(l);
+        if (index < 0) return;
+
+        listeners[index] = null;
+        if (!dispatching) {
+            compact();
+        }
+    }
+
+    /**
+     * Check if a listener is currently registered.
+     *
+     * @param l the listener to look up
+     * @return True if the listener will be invoked by the next ticks
+     */
+    public boolean isRegistered(OnDispatchListener l)
+    {
+        return indexOf(l) >= 0;
+    }
+
+    /**
+     * Set whether the ticks should be aligned to the display frames. This requires
+     * Jelly Bean (API 16), on older versions the ticks are always posted to the main Handler.
+     *
+     * @param frameAligned True to deliver the ticks from a Choreographer frame callback
+     */
+    public void setFrameAligned(boolean frameAligned)
+    {
+        if (this.frameAligned == frameAligned) return;
+
+        cancel();
+        this.frameAligned = frameAligned;
+        reschedule();
+    }
+
+    public boolean isFrameAligned()
+    {
+        return frameAligned && frameTicker != null;
+    }
+
+    /**
+     * @return the number of listeners currently registered
+     */
+    public int getRegisteredCount()
+    {
+        int registered = 0;
+        for (int i = 0; i < count; i++) {
+            if (listeners[i] != null) registered++;
+        }
+        return registered;
+    }
+
+    /**
+     * @return True if a tick is pending, False when the scheduler is idle
+     */
+    public boolean isScheduled()
+    {
+        return scheduled;
+    }
+
+    /**
+     * Return the number of times the scheduler woke up the main thread to run a tick. It stays
+     * still while no listener is registered, the scheduler posts nothing when idle.
+     *
+     * @return the number of ticks run since the last reset
+     */
+    public long getWakeupCount()
+    {
+        return wakeupCount;
+    }
+
+    public void resetWakeupCount()
+    {
+        wakeupCount = 0;
+    }
+
+    private void tick(long now)
+    {
+        wakeupCount++;
+        dispatching = true;
+        try {
+            for (int i = 0; i < count; i++) {
+                OnDispatchListener l = listeners[i];
+                if (l == null || now < nextDispatch[i]) continue;
+
+                // Skip the missed ticks instead of firing them in a burst
+                long next = nextDispatch[i] + intervals[i];
+                nextDispatch[i] = next > now ? next : now + intervals[i];
+
+                l.onDispatch(now);
+            }
+        } finally {
+            dispatching = false;
+        }
+
+        compact();
+        reschedule();
+    }
+
+    private void reschedule()
+    {
+        if (count == 0 || dispatching) return;
+
+        long next = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (nextDispatch[i] < next) next = nextDispatch[i];
+        }
+
+        cancel();
+        long delay = Math.max(0, next - SystemClock.uptimeMillis());
+        if (isFrameAligned()) {
+            frameTicker.post(delay);
+        } else {
+            handler.postAtTime(tickRunnable, next);
+        }
+        scheduled = true;
+    }
+
+    private void cancel()
+    {
+        if (!scheduled) return;
+
+        if (isFrameAligned()) {
+            frameTicker.cancel();
+        } else {
+            handler.removeCallbacks(tickRunnable);
+        }
+        scheduled = false;
+    }
+
+    private int indexOf(OnDispatchListener l)
+    {
+        if (l == null) return -1;
+        for (int i = 0; i < count; i++) {
+            if (listeners[i] == l) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Remove the empty slots left by unregister() while keeping the registration order.
+     */
+    private void compact()
+    {
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            if (listeners[i] == null) continue;
+            listeners[j] = listeners[i];
+            intervals[j] = intervals[i];
+            nextDispatch[j] = nextDispatch[i];
+            j++;
+        }
+        for (int i = j; i < count; i++) {
+            listeners[i] = null;
+        }
+        count = j;
+
+        if (count == 0) {
+            cancel();
+        }
+    }
+
+    private void grow()
+    {
+        int capacity = listeners.length * 2;
+
+        OnDispatchListener[] newListeners = new OnDispatchListener[capacity];
+        long[] newIntervals = new long[capacity];
+        long[] newNextDispatch = new long[capacity];
+
+        System.arraycopy(listeners, 0, newListeners, 0, count);
+        System.arraycopy(intervals, 0, newIntervals, 0, count);
+        System.arraycopy(nextDispatch, 0, newNextDispatch, 0, count);
+
+        listeners = newListeners;
+        intervals = newIntervals;
+        nextDispatch = newNextDispatch;
+    }
+
+    /**
+     * Choreographer bridge, kept in its own class so that older platforms never load it.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class FrameTicker implements Choreographer.FrameCallback
+    {
+        private final Choreographer choreographer = Choreographer.getInstance();
+
+        void post(long delayMillis)
+        {
+            choreographer.postFrameCallbackDelayed(this, delayMillis);
+        }
+
+        void cancel()
+        {
+            choreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos)
+        {
+            scheduled = false;
+            tick(SystemClock.uptimeMillis());
+        }
+    }
+}
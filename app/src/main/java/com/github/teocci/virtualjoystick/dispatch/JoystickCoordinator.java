@@ -0,0 +1,264 @@
+package com.github.teocci.virtualjoystick.dispatch;
+
+import android.os.SystemClock;
+
+import com.github.teocci.virtualjoystick.engine.StickFrame;
+import com.github.teocci.virtualjoystick.interfaces.OnDispatchListener;
+import com.github.teocci.virtualjoystick.interfaces.OnMultiMoveListener;
+import com.github.teocci.virtualjoystick.view.JoystickView;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Samples several JoystickViews on a single dispatch tick, e.g. the two sticks of a dual-stick
+ * screen, so their values are consistent with each other and the screen has one wakeup source.
+ * A coordinated view does not register itself with the DispatchScheduler: it tells the
+ * coordinator when it is pressed and released, and the coordinator is registered while at least
+ * one of them is pressed.
+ *
+ * On every tick each pressed view dispatches to its own listeners, then the values of all the
+ * views are delivered in one preallocated StickFrame, indexed in the order the views were added.
+ * The release of the last pressed view is always delivered.
+ *
+ * This class is not thread-safe, it must only be used from the main thread.
+ */
+public class JoystickCoordinator implements OnDispatchListener
+{
+    /**
+     * Default refresh rate as a time in milliseconds to send the frames through callback
+     */
+    public static final int DEFAULT_LOOP_INTERVAL = 50; // in milliseconds
+
+    private final DispatchScheduler dispatchScheduler = DispatchScheduler.getInstance();
+
+    private JoystickView[] views = new JoystickView[0];
+    private boolean[] pressed = new boolean[0];
+    private StickFrame frame = new StickFrame(0);
+
+    private OnMultiMoveListener callback;
+    private long loopInterval = DEFAULT_LOOP_INTERVAL;
+
+    /**
+     * Number of dispatch ticks received
+     */
+    private long tickCount;
+
+    /**
+     * Coordinate a view. The frames grow by one stick, at the index returned.
+     * A gesture in progress on the view is released first, and a view coordinated by another
+     * coordinator is removed from it.
+     *
+     * @param view the view to sample on the shared tick
+     * @return the index of the view in the frames
+     */
+    public int add(JoystickView view)
+    {
+        int index = indexOf(view);
+        if (index >= 0) return index;
+
+        if (view.getCoordinator() != null) {
+            view.getCoordinator().remove(view);
+        }
+        view.setCoordinator(this);
+
+        int count = views.length;
+        JoystickView[] newViews = new JoystickView[count + 1];
+        boolean[] newPressed = new boolean[count + 1];
+        System.arraycopy(views, 0, newViews, 0, count);
+        System.arraycopy(pressed, 0, newPressed, 0, count);
+        newViews[count] = view;
+
+        views = newViews;
+        pressed = newPressed;
+        frame = new StickFrame(count + 1);
+        return count;
+    }
+
+    /**
+     * Stop coordinating a view, it registers itself with the DispatchScheduler again. The views
+     * added after it move down by one index. A gesture in progress on the view is released first.
+     *
+     * @param view the view to remove
+     */
+    public void remove(JoystickView view)
+    {
+        int index = indexOf(view);
+        if (index < 0) return;
+
+        view.setCoordinator(null);
+
+        int count = views.length - 1;
+        JoystickView[] newViews = new JoystickView[count];
+        boolean[] newPressed = new boolean[count];
+        System.arraycopy(views, 0, newViews, 0, index);
+        System.arraycopy(pressed, 0, newPressed, 0, index);
+        System.arraycopy(views, index + 1, newViews, index, count - index);
+        System.arraycopy(pressed, index + 1, newPressed, index, count - index);
+
+        views = newViews;
+        pressed = newPressed;
+        frame = new StickFrame(count);
+    }
+
+    /**
+     * @param view a coordinated view
+     * @return the index of the view in the frames, -1 if it is not coordinated
+     */
+    public int indexOf(JoystickView view)
+    {
+        for (int i = 0; i < views.length; i++) {
+            if (views[i] == view) return i;
+        }
+        return -1;
+    }
+
+    public int getViewCount()
+    {
+        return views.length;
+    }
+
+    /**
+     * Register a callback to be invoked with the values of all the views on every tick.
+     *
+     * @param l The callback that will run
+     */
+    public void setOnMultiMoveListener(OnMultiMoveListener l)
+    {
+        setOnMultiMoveListener(l, DEFAULT_LOOP_INTERVAL);
+    }
+
+    /**
+     * Register a callback to be invoked with the values of all the views on every tick.
+     *
+     * @param l            The callback that will run
+     * @param loopInterval Refresh rate of the shared tick in milliseconds
+     */
+    public void setOnMultiMoveListener(OnMultiMoveListener l, int loopInterval)
+    {
+        callback = l;
+        setLoopInterval(loopInterval);
+    }
+
+    /**
+     * Set the refresh rate of the shared tick. It replaces the loop interval of each view.
+     *
+     * @param loopInterval Refresh rate in milliseconds
+     */
+    public void setLoopInterval(long loopInterval)
+    {
+        this.loopInterval = loopInterval;
+
+        // Apply the new rate right away if a gesture is in progress
+        if (dispatchScheduler.isRegistered(this)) {
+            dispatchScheduler.register(this, loopInterval);
+        }
+    }
+
+    public long getLoopInterval()
+    {
+        return loopInterval;
+    }
+
+    /**
+     * Called by a coordinated view when its button is pressed.
+     *
+     * @param view the pressed view
+     */
+    public void onViewPressed(JoystickView view)
+    {
+        int index = indexOf(view);
+        if (index < 0 || pressed[index]) return;
+
+        pressed[index] = true;
+        if (!dispatchScheduler.isRegistered(this)) {
+            dispatchScheduler.register(this, loopInterval);
+        }
+    }
+
+    /**
+     * Called by a coordinated view when its button is released. Does nothing if it was not pressed.
+     *
+     * @param view the released view
+     */
+    public void onViewReleased(JoystickView view)
+    {
+        int index = indexOf(view);
+        if (index < 0 || !pressed[index]) return;
+
+        pressed[index] = false;
+        if (getPressedCount() == 0) {
+            dispatchScheduler.unregister(this);
+
+            // The release of the last view is always dispatched
+            dispatchFrame(SystemClock.uptimeMillis());
+        }
+    }
+
+    /**
+     * @param view a coordinated view
+     * @return True if the view is pressed and sampled on the shared tick
+     */
+    public boolean isPressed(JoystickView view)
+    {
+        int index = indexOf(view);
+        return index >= 0 && pressed[index];
+    }
+
+    /**
+     * @return the number of views currently pressed
+     */
+    public int getPressedCount()
+    {
+        int count = 0;
+        for (boolean p : pressed) {
+            if (p) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of shared ticks received, which does not grow while no view is pressed
+     */
+    public long getTickCount()
+    {
+        return tickCount;
+    }
+
+    public void resetTickCount()
+    {
+        tickCount = 0;
+    }
+
+    @Override // OnDispatchListener
+    public void onDispatch(long uptimeMillis)
+    {
+        tickCount++;
+
+        for (int i = 0; i < views.length; i++) {
+            if (pressed[i]) {
+                views[i].onDispatch(uptimeMillis);
+            }
+        }
+
+        dispatchFrame(uptimeMillis);
+    }
+
+    /**
+     * Send the values of all the views through callback in one frame.
+     *
+     * @param now current time in milliseconds
+     */
+    private void dispatchFrame(long now)
+    {
+        if (callback == null) return;
+
+        for (int i = 0; i < views.length; i++) {
+            frame.set(i, views[i].getController().getState(), pressed[i]);
+        }
+        frame.setFrameTime(now);
+
+        callback.onMultiMove(frame);
+    }
+}
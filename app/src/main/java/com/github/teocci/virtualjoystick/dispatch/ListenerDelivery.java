@@ -0,0 +1,164 @@
+package com.github.teocci.virtualjoystick.dispatch;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+import com.github.teocci.virtualjoystick.engine.ExecutorDelivery;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Delivers the move values to a listener on another thread: the main thread, a dedicated
+ * HandlerThread, or any Executor. The queue and the backpressure policies are the ones of
+ * ExecutorDelivery.
+ *
+ * The dedicated HandlerThread is started with the first value and stopped by release(), after
+ * which the next value starts it again. JoystickView releases its delivery when it is detached
+ * from the window, so the thread does not outlive the activity. A delivery used elsewhere is
+ * owned by the caller, who must call release() when done.
+ */
+public class ListenerDelivery extends ExecutorDelivery
+{
+    public static final int TARGET_UI_THREAD = 0;
+    public static final int TARGET_HANDLER_THREAD = 1;
+
+    /**
+     * Runs the tasks on the dedicated HandlerThread, null for the other targets
+     */
+    private final HandlerThreadExecutor threadExecutor;
+
+    /**
+     * Deliver the values on the main thread or on a dedicated HandlerThread.
+     *
+     * @param listener the listener to invoke
+     * @param target   TARGET_UI_THREAD or TARGET_HANDLER_THREAD
+     * @param policy   POLICY_DROP_OLDEST, POLICY_LATEST_ONLY or POLICY_BOUNDED_QUEUE
+     * @param capacity number of values queued before the policy applies, ignored by POLICY_LATEST_ONLY
+     */
+    public ListenerDelivery(OnPreciseMoveListener listener, int target, int policy, int capacity)
+    {
+        this(listener, createExecutor(target), policy, capacity);
+    }
+
+    /**
+     * Deliver the values on a caller-supplied executor. The listener is invoked by one task at a
+     * time, so a thread pool does not invoke it concurrently.
+     *
+     * @param listener the listener to invoke
+     * @param executor the executor running the listener, not shut down by release()
+     * @param policy   POLICY_DROP_OLDEST, POLICY_LATEST_ONLY or POLICY_BOUNDED_QUEUE
+     * @param capacity number of values queued before the policy applies, ignored by POLICY_LATEST_ONLY
+     */
+    public ListenerDelivery(OnPreciseMoveListener listener, Executor executor, int policy, int capacity)
+    {
+        super(listener, executor, policy, capacity);
+        threadExecutor = executor instanceof HandlerThreadExecutor ? (HandlerThreadExecutor) executor : null;
+    }
+
+    /**
+     * @param target TARGET_UI_THREAD or TARGET_HANDLER_THREAD
+     * @return the executor running the tasks on the target thread
+     */
+    private static Executor createExecutor(int target)
+    {
+        switch (target) {
+            case TARGET_UI_THREAD:
+                return new HandlerExecutor(new Handler(Looper.getMainLooper()));
+
+            case TARGET_HANDLER_THREAD:
+                return new HandlerThreadExecutor();
+
+            default:
+                throw new IllegalArgumentException("Unknown delivery target: " + target);
+        }
+    }
+
+    /**
+     * @return True while the dedicated HandlerThread is running
+     */
+    public boolean isThreadRunning()
+    {
+        return threadExecutor != null && threadExecutor.isRunning();
+    }
+
+    /**
+     * Drop the queued values and stop the dedicated HandlerThread, if any.
+     * A caller-supplied executor is not shut down.
+     */
+    @Override
+    public void release()
+    {
+        super.release();
+
+        if (threadExecutor != null) {
+            // A drain posted to the thread is discarded with it
+            threadExecutor.quit();
+            cancelScheduledDrain();
+        }
+    }
+
+    /**
+     * Runs the tasks on the thread of a Handler.
+     */
+    private static class HandlerExecutor implements Executor
+    {
+        private final Handler handler;
+
+        HandlerExecutor(Handler handler)
+        {
+            this.handler = handler;
+        }
+
+        @Override
+        public void execute(Runnable command)
+        {
+            if (!handler.post(command)) {
+                throw new RejectedExecutionException("The handler thread is not running");
+            }
+        }
+    }
+
+    /**
+     * Runs the tasks on a HandlerThread started on demand.
+     */
+    private static class HandlerThreadExecutor implements Executor
+    {
+        private HandlerThread thread;
+        private Handler handler;
+
+        @Override
+        public synchronized void execute(Runnable command)
+        {
+            if (thread == null) {
+                thread = new HandlerThread("JoystickListener");
+                thread.start();
+                handler = new Handler(thread.getLooper());
+            }
+
+            if (!handler.post(command)) {
+                throw new RejectedExecutionException("The handler thread is not running");
+            }
+        }
+
+        synchronized boolean isRunning()
+        {
+            return thread != null;
+        }
+
+        synchronized void quit()
+        {
+            if (thread != null) {
+                thread.quit();
+                thread = null;
+                handler = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.teocci.virtualjoystick.dispatch;
+
+import com.github.teocci.virtualjoystick.interfaces.OnMoveListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Adapts an OnMoveListener to the OnPreciseMoveListener dispatch, by truncating the angle
+ * and the strength to integers. The angle is truncated as the integer dispatch always did, the
+ * signed degrees first, so an angle just below 0° stays 0 and -10.7° gives 350.
+ */
+public class MoveListenerAdapter implements OnPreciseMoveListener
+{
+    private final OnMoveListener listener;
+
+    public MoveListenerAdapter(OnMoveListener listener)
+    {
+        this.listener = listener;
+    }
+
+    public OnMoveListener getListener()
+    {
+        return listener;
+    }
+
+    @Override
+    public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+    {
+        listener.onMove(toLegacyAngle(angle), (int) strength);
+    }
+
+    /**
+     * @param angle angle in degrees, from 0 included to 360 excluded
+     * @return the angle truncated toward 0 in the -180° to 180° range, then made positive
+     */
+    static int toLegacyAngle(float angle)
+    {
+        int degrees = (int) (angle > 180 ? angle - 360 : angle);
+        return degrees < 0 ? degrees + 360 : degrees;
+    }
+}
@@ -0,0 +1,228 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Picks the dispatch interval of a joystick from how fast the button moves and how long the
+ * listener takes, so a fast flick is sampled often and a button held still is not.
+ *
+ * The velocity of the button, in normalized units per second, is smoothed over the samples with
+ * a time constant of VELOCITY_TIME_CONSTANT. At or below the still velocity the interval is the
+ * maximum, at or above the fast velocity it is the minimum, and in between it is interpolated.
+ * The listener cost is smoothed over the callbacks; when it takes more than the cost ratio of
+ * the interval, the interval backs off to keep the listener below that ratio. The result always
+ * stays within the minimum and maximum intervals.
+ *
+ * Each gesture starts at the minimum interval, so the first move of a flick is not missed.
+ *
+ * This class is not thread-safe, it must be used from a single thread.
+ */
+public class AdaptiveRateController
+{
+    public static final int DEFAULT_MIN_INTERVAL = 16; // in milliseconds
+    public static final int DEFAULT_MAX_INTERVAL = 100; // in milliseconds
+
+    /**
+     * Default velocity below which the button is considered still, in normalized units per second
+     */
+    public static final float DEFAULT_STILL_VELOCITY = 0.2f;
+
+    /**
+     * Default velocity from which the minimum interval is used, in normalized units per second.
+     * A move from the center to the border in 250 milliseconds.
+     */
+    public static final float DEFAULT_FAST_VELOCITY = 4f;
+
+    /**
+     * Default share of the interval the listener may take before the interval backs off
+     */
+    public static final float DEFAULT_COST_RATIO = 0.5f;
+
+    /**
+     * Time constant of the velocity smoothing, in milliseconds
+     */
+    private static final float VELOCITY_TIME_CONSTANT = 50;
+
+    /**
+     * Weight of a new listener cost in its moving average
+     */
+    private static final float COST_SMOOTHING = 0.25f;
+
+    private long minInterval = DEFAULT_MIN_INTERVAL;
+    private long maxInterval = DEFAULT_MAX_INTERVAL;
+    private float stillVelocity = DEFAULT_STILL_VELOCITY;
+    private float fastVelocity = DEFAULT_FAST_VELOCITY;
+    private float costRatio = DEFAULT_COST_RATIO;
+
+    // Last sample
+    private boolean hasSample;
+    private float lastX;
+    private float lastY;
+    private long lastTime;
+
+    private float velocity;
+    private float listenerCost; // in milliseconds
+    private long interval = DEFAULT_MIN_INTERVAL;
+
+    /**
+     * Set the bounds of the interval.
+     *
+     * @param minInterval shortest interval in milliseconds, used while the button moves fast
+     * @param maxInterval longest interval in milliseconds, used while the button is still
+     */
+    public void setBounds(long minInterval, long maxInterval)
+    {
+        this.minInterval = Math.max(1, minInterval);
+        this.maxInterval = Math.max(this.minInterval, maxInterval);
+        interval = clamp(interval);
+    }
+
+    public long getMinInterval()
+    {
+        return minInterval;
+    }
+
+    public long getMaxInterval()
+    {
+        return maxInterval;
+    }
+
+    /**
+     * Set the velocities mapped on the bounds of the interval.
+     *
+     * @param stillVelocity velocity up to which the maximum interval is used, in normalized units per second
+     * @param fastVelocity  velocity from which the minimum interval is used, in normalized units per second
+     */
+    public void setVelocityRange(float stillVelocity, float fastVelocity)
+    {
+        this.stillVelocity = Math.max(0, stillVelocity);
+        this.fastVelocity = Math.max(this.stillVelocity + 0.001f, fastVelocity);
+    }
+
+    /**
+     * Set the share of the interval the listener may take before the interval backs off.
+     *
+     * @param costRatio ratio in (0, 1]
+     */
+    public void setCostRatio(float costRatio)
+    {
+        this.costRatio = Math.max(0.01f, Math.min(1, costRatio));
+    }
+
+    /**
+     * Start a gesture at the minimum interval. The listener cost is kept.
+     *
+     * @param x         position on the x axis normalized in [-1, 1]
+     * @param y         position on the y axis normalized in [-1, 1]
+     * @param eventTime time of the sample in milliseconds
+     */
+    public void reset(float x, float y, long eventTime)
+    {
+        hasSample = true;
+        lastX = x;
+        lastY = y;
+        lastTime = eventTime;
+        velocity = 0;
+        interval = minInterval;
+    }
+
+    /**
+     * Add a sample of the button position to the velocity.
+     *
+     * @param x         position on the x axis normalized in [-1, 1]
+     * @param y         position on the y axis normalized in [-1, 1]
+     * @param eventTime time of the sample in milliseconds
+     */
+    public void addSample(float x, float y, long eventTime)
+    {
+        if (!hasSample) {
+            reset(x, y, eventTime);
+            return;
+        }
+
+        long dt = eventTime - lastTime;
+        if (dt <= 0) {
+            // Same timestamp, the distance is accounted with the next sample
+            return;
+        }
+
+        float dx = x - lastX;
+        float dy = y - lastY;
+        float sampleVelocity = (float) Math.sqrt(dx * dx + dy * dy) * 1000 / dt;
+
+        float alpha = dt / (dt + VELOCITY_TIME_CONSTANT);
+        velocity += alpha * (sampleVelocity - velocity);
+
+        lastX = x;
+        lastY = y;
+        lastTime = eventTime;
+    }
+
+    /**
+     * Compute the interval until the next dispatch, to be called on every dispatch tick.
+     *
+     * @param now               current time in milliseconds
+     * @param listenerCostNanos time taken by the listener on this tick in nanoseconds,
+     *                          -1 if it was not invoked
+     * @return the new interval in milliseconds
+     */
+    public long update(long now, long listenerCostNanos)
+    {
+        // No sample since the last one means the button did not move
+        if (hasSample && now > lastTime) {
+            addSample(lastX, lastY, now);
+        }
+
+        if (listenerCostNanos >= 0) {
+            listenerCost += COST_SMOOTHING * (listenerCostNanos / 1e6f - listenerCost);
+        }
+
+        float t = (velocity - stillVelocity) / (fastVelocity - stillVelocity);
+        t = Math.max(0, Math.min(1, t));
+        float velocityInterval = maxInterval - t * (maxInterval - minInterval);
+
+        float costInterval = listenerCost / costRatio;
+
+        interval = clamp((long) Math.ceil(Math.max(velocityInterval, costInterval)));
+        return interval;
+    }
+
+    private long clamp(long value)
+    {
+        return Math.max(minInterval, Math.min(maxInterval, value));
+    }
+
+    /**
+     * @return the current dispatch interval in milliseconds
+     */
+    public long getEffectiveInterval()
+    {
+        return interval;
+    }
+
+    /**
+     * @return the current dispatch rate in Hz
+     */
+    public float getEffectiveRate()
+    {
+        return 1000f / interval;
+    }
+
+    /**
+     * @return the smoothed velocity of the button in normalized units per second
+     */
+    public float getVelocity()
+    {
+        return velocity;
+    }
+
+    /**
+     * @return the smoothed time taken by the listener in milliseconds
+     */
+    public float getListenerCost()
+    {
+        return listenerCost;
+    }
+}
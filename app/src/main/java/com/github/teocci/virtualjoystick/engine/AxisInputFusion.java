@@ -0,0 +1,152 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Feeds a JoystickController from both the touch screen and the axes of a physical joystick or
+ * gamepad, and arbitrates between them: touch wins. While a finger holds the button the axes are
+ * ignored, and a finger going down takes over a button held by the axes. The axes press the
+ * button when they leave their flat zone and release it when they are back in it.
+ *
+ * The axes are normalized like Android reports them, in [-1, 1] with y growing downward, and
+ * mapped on the border of the joystick, so they go through the same clamp, input pipeline,
+ * change gate and listeners as the touch, at the same dispatch rate.
+ *
+ * This class is not thread-safe, it must be used from a single thread.
+ */
+public class AxisInputFusion
+{
+    public static final int SOURCE_NONE = 0;
+    public static final int SOURCE_TOUCH = 1;
+    public static final int SOURCE_AXES = 2;
+
+    private final JoystickController controller;
+
+    private int source = SOURCE_NONE;
+
+    // Flat zones of the axes, as reported by the device
+    private float flatX;
+    private float flatY;
+
+    public AxisInputFusion(JoystickController controller)
+    {
+        this.controller = controller;
+    }
+
+    public JoystickController getController()
+    {
+        return controller;
+    }
+
+    /**
+     * @return the source holding the button: SOURCE_NONE, SOURCE_TOUCH or SOURCE_AXES
+     */
+    public int getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Set the flat zones of the axes, the values around the center a device reports at rest.
+     * Values inside are read as 0, values outside are rescaled so they start from 0 at its edge.
+     *
+     * @param flatX flat zone of the x axis in [0, 1)
+     * @param flatY flat zone of the y axis in [0, 1)
+     */
+    public void setFlat(float flatX, float flatY)
+    {
+        this.flatX = Math.max(0, Math.min(0.99f, flatX));
+        this.flatY = Math.max(0, Math.min(0.99f, flatY));
+    }
+
+    public void onTouchDown(int x, int y, long eventTime)
+    {
+        // Touch wins, the axes let the button go without a release in between
+        source = SOURCE_TOUCH;
+        controller.onDown(x, y, eventTime);
+    }
+
+    public void onTouchMove(int x, int y, long eventTime)
+    {
+        if (source != SOURCE_TOUCH) return;
+
+        controller.onMove(x, y, eventTime);
+    }
+
+    public void onTouchUp(int x, int y, long eventTime)
+    {
+        if (source != SOURCE_TOUCH) return;
+
+        source = SOURCE_NONE;
+        controller.onUp(x, y, eventTime);
+    }
+
+    /**
+     * Release the button whatever holds it, e.g. on ACTION_CANCEL or when the view is hidden.
+     *
+     * @param eventTime time of the cancellation in milliseconds
+     */
+    public void onCancel(long eventTime)
+    {
+        source = SOURCE_NONE;
+        controller.onCancel(eventTime);
+    }
+
+    /**
+     * Handle a sample of the axes.
+     *
+     * @param axisX     value of the x axis in [-1, 1], growing to the right
+     * @param axisY     value of the y axis in [-1, 1], growing downward
+     * @param eventTime time of the sample in milliseconds
+     * @return True if the sample moved the button, False if a touch holds it or the axes are at rest
+     */
+    public boolean onAxes(float axisX, float axisY, long eventTime)
+    {
+        if (source == SOURCE_TOUCH) return false;
+
+        float x = applyFlat(axisX, flatX);
+        float y = applyFlat(axisY, flatY);
+
+        if (x == 0 && y == 0) {
+            if (source == SOURCE_AXES) {
+                source = SOURCE_NONE;
+                controller.onUp(centerX(), centerY(), eventTime);
+                return true;
+            }
+            return false;
+        }
+
+        JoystickState state = controller.getState();
+        int rawX = centerX() + Math.round(x * state.getBorderRadius());
+        int rawY = centerY() + Math.round(y * state.getBorderRadius());
+
+        if (source != SOURCE_AXES) {
+            // Pressed at the center, so an auto-defined center does not jump to the axes position
+            source = SOURCE_AXES;
+            controller.onDown(centerX(), centerY(), eventTime);
+        }
+        controller.onMove(rawX, rawY, eventTime);
+        return true;
+    }
+
+    private int centerX()
+    {
+        return controller.getState().getCenterX();
+    }
+
+    private int centerY()
+    {
+        return controller.getState().getCenterY();
+    }
+
+    private static float applyFlat(float value, float flat)
+    {
+        float abs = Math.abs(value);
+        if (abs <= flat) return 0;
+
+        float scaled = Math.min(1, (abs - flat) / (1 - flat));
+        return value < 0 ? -scaled : scaled;
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Decides whether a move value is worth dispatching. A value goes through only if the angle or
+ * the strength moved more than the deadband since the last dispatched value, and not more often
+ * than the minimum interval. A heartbeat can be set to repeat the last value from time to time.
+ *
+ * The gate keeps counters of what went through and what was suppressed, so the saving against
+ * a fixed-interval dispatch (where every offered value is sent) can be measured.
+ */
+public class ChangeGate
+{
+    /**
+     * Default deadband for the angle in degrees
+     */
+    public static final int DEFAULT_ANGLE_DEADBAND = 2;
+
+    /**
+     * Default deadband for the strength in percentage
+     */
+    public static final int DEFAULT_STRENGTH_DEADBAND = 2;
+
+    private int angleDeadband = DEFAULT_ANGLE_DEADBAND;
+    private int strengthDeadband = DEFAULT_STRENGTH_DEADBAND;
+    private long minInterval;
+    private long heartbeatInterval;
+
+    // Last dispatched value
+    private boolean hasLast;
+    private int lastAngle;
+    private int lastStrength;
+    private long lastTime;
+
+    // Counters
+    private long offeredCount;
+    private long emittedCount;
+
+    /**
+     * Offer a new value to the gate.
+     *
+     * @param angle    current angle
+     * @param strength current strength
+     * @param now      current time in milliseconds
+     * @param force    True to let the value through whatever the deadband and rate are
+     * @return True if the value must be dispatched
+     */
+    public boolean offer(int angle, int strength, long now, boolean force)
+    {
+        offeredCount++;
+
+        boolean emit;
+        if (force || !hasLast) {
+            emit = true;
+        } else {
+            long elapsed = now - lastTime;
+            if (heartbeatInterval > 0 && elapsed >= heartbeatInterval) {
+                emit = true;
+            } else if (elapsed < minInterval) {
+                // The value is coalesced, the next offer will compare against the same last value
+                emit = false;
+            } else {
+                emit = hasChanged(angle, strength);
+            }
+        }
+
+        if (emit) {
+            hasLast = true;
+            lastAngle = angle;
+            lastStrength = strength;
+            lastTime = now;
+            emittedCount++;
+        }
+
+        return emit;
+    }
+
+    private boolean hasChanged(int angle, int strength)
+    {
+        if (Math.abs(strength - lastStrength) > strengthDeadband) return true;
+
+        // The angle is meaningless when the button is at rest
+        if (strength == 0 && lastStrength == 0) return false;
+
+        int delta = Math.abs(angle - lastAngle);
+        if (delta > 180) delta = 360 - delta;
+
+        return delta > angleDeadband;
+    }
+
+    /**
+     * Forget the last dispatched value, the next offer will go through. The counters are kept.
+     */
+    public void reset()
+    {
+        hasLast = false;
+    }
+
+    /**
+     * Reset the offered, emitted and suppressed counters.
+     */
+    public void resetCounters()
+    {
+        offeredCount = 0;
+        emittedCount = 0;
+    }
+
+    public void setAngleDeadband(int degrees)
+    {
+        angleDeadband = Math.max(0, degrees);
+    }
+
+    public int getAngleDeadband()
+    {
+        return angleDeadband;
+    }
+
+    public void setStrengthDeadband(int percentage)
+    {
+        strengthDeadband = Math.max(0, percentage);
+    }
+
+    public int getStrengthDeadband()
+    {
+        return strengthDeadband;
+    }
+
+    /**
+     * Set the minimum time between two dispatched values, this caps the dispatch rate.
+     *
+     * @param millis minimum interval in milliseconds, 0 for no cap
+     */
+    public void setMinInterval(long millis)
+    {
+        minInterval = Math.max(0, millis);
+    }
+
+    public long getMinInterval()
+    {
+        return minInterval;
+    }
+
+    /**
+     * Cap the dispatch rate to the interval between two ticks. A quarter of the interval is left
+     * as slack, so a tick fired a little early by the Handler or the Choreographer does not
+     * coalesce a value that changed.
+     *
+     * @param millis interval between two ticks in milliseconds
+     */
+    public void setTickInterval(long millis)
+    {
+        setMinInterval(millis - millis / 4);
+    }
+
+    /**
+     * Set the time after which the last value is dispatched again even if it did not change.
+     *
+     * @param millis heartbeat interval in milliseconds, 0 to disable it
+     */
+    public void setHeartbeatInterval(long millis)
+    {
+        heartbeatInterval = Math.max(0, millis);
+    }
+
+    public long getHeartbeatInterval()
+    {
+        return heartbeatInterval;
+    }
+
+    /**
+     * @return the number of values offered, that is what a fixed-interval dispatch would send
+     */
+    public long getOfferedCount()
+    {
+        return offeredCount;
+    }
+
+    /**
+     * @return the number of values that went through the gate
+     */
+    public long getEmittedCount()
+    {
+        return emittedCount;
+    }
+
+    /**
+     * @return the number of values suppressed by the deadband or coalesced by the rate cap
+     */
+    public long getSuppressedCount()
+    {
+        return offeredCount - emittedCount;
+    }
+}
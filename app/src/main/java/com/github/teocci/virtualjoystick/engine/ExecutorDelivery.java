@@ -0,0 +1,249 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Delivers the move values to a listener through an Executor, so a slow listener does not stall
+ * the touch handling and the drawing. The values are queued in a preallocated ring and drained
+ * by a single reusable Runnable. The listener is never invoked concurrently, and nothing is
+ * allocated per value.
+ *
+ * When the listener does not keep up, the backpressure policy decides which values are dropped:
+ * - POLICY_DROP_OLDEST: the oldest queued value makes room for the new one
+ * - POLICY_LATEST_ONLY: only the latest value is kept, the listener always gets the freshest one
+ * - POLICY_BOUNDED_QUEUE: the new value is dropped when the queue is full, the listener gets
+ *   every value until then in order
+ *
+ * The values can be offered from any thread. ListenerDelivery runs it on the main thread or on
+ * a dedicated HandlerThread.
+ */
+public class ExecutorDelivery implements OnPreciseMoveListener
+{
+    public static final int POLICY_DROP_OLDEST = 0;
+    public static final int POLICY_LATEST_ONLY = 1;
+    public static final int POLICY_BOUNDED_QUEUE = 2;
+
+    /**
+     * Default number of values queued before the policy drops some
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final OnPreciseMoveListener listener;
+    private final Executor executor;
+    private final int policy;
+
+    private final Runnable drainRunnable;
+
+    /**
+     * Held while invoking the listener, so a drain left running by a stopped executor never
+     * overlaps with the next one
+     */
+    private final Object drainLock = new Object();
+
+    // Ring of the queued values, guarded by this
+    private final float[] queueX;
+    private final float[] queueY;
+    private final float[] queueAngle;
+    private final float[] queueStrength;
+    private final long[] queueTime;
+    private int head;
+    private int size;
+    private boolean drainScheduled;
+
+    // Metrics, guarded by this
+    private int maxQueueDepth;
+    private long deliveredCount;
+    private long droppedCount;
+
+    /**
+     * Deliver the values on a caller-supplied executor. The listener is invoked by one task at a
+     * time, so a thread pool does not invoke it concurrently.
+     *
+     * @param listener the listener to invoke
+     * @param executor the executor running the listener
+     * @param policy   POLICY_DROP_OLDEST, POLICY_LATEST_ONLY or POLICY_BOUNDED_QUEUE
+     * @param capacity number of values queued before the policy applies, ignored by POLICY_LATEST_ONLY
+     */
+    public ExecutorDelivery(OnPreciseMoveListener listener, Executor executor, int policy, int capacity)
+    {
+        if (listener == null || executor == null) throw new NullPointerException();
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+
+        this.listener = listener;
+        this.executor = executor;
+        this.policy = policy;
+
+        if (policy == POLICY_LATEST_ONLY) {
+            capacity = 1;
+        }
+        queueX = new float[capacity];
+        queueY = new float[capacity];
+        queueAngle = new float[capacity];
+        queueStrength = new float[capacity];
+        queueTime = new long[capacity];
+
+        drainRunnable = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                drain();
+            }
+        };
+    }
+
+    public OnPreciseMoveListener getListener()
+    {
+        return listener;
+    }
+
+    public int getPolicy()
+    {
+        return policy;
+    }
+
+    @Override // OnPreciseMoveListener
+    public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+    {
+        boolean schedule;
+        synchronized (this) {
+            int capacity = queueTime.length;
+            if (size == capacity) {
+                droppedCount++;
+                if (policy == POLICY_BOUNDED_QUEUE) return;
+
+                // Drops the oldest value to make room
+                head = (head + 1) % capacity;
+                size--;
+            }
+
+            int tail = (head + size) % capacity;
+            queueX[tail] = x;
+            queueY[tail] = y;
+            queueAngle[tail] = angle;
+            queueStrength[tail] = strength;
+            queueTime[tail] = eventTime;
+            size++;
+            if (size > maxQueueDepth) maxQueueDepth = size;
+
+            schedule = !drainScheduled;
+            drainScheduled = true;
+        }
+
+        if (schedule) {
+            try {
+                executor.execute(drainRunnable);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    drainScheduled = false;
+                    droppedCount += size;
+                    size = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Invoke the listener with the queued values, oldest first.
+     */
+    private void drain()
+    {
+        synchronized (drainLock) {
+            drainQueue();
+        }
+    }
+
+    private void drainQueue()
+    {
+        while (true) {
+            float x, y, angle, strength;
+            long eventTime;
+            synchronized (this) {
+                if (size == 0) {
+                    drainScheduled = false;
+                    return;
+                }
+                x = queueX[head];
+                y = queueY[head];
+                angle = queueAngle[head];
+                strength = queueStrength[head];
+                eventTime = queueTime[head];
+                head = (head + 1) % queueTime.length;
+                size--;
+                deliveredCount++;
+            }
+
+            listener.onPreciseMove(x, y, angle, strength, eventTime);
+        }
+    }
+
+    /**
+     * @return the number of values waiting to be delivered
+     */
+    public synchronized int getQueueDepth()
+    {
+        return size;
+    }
+
+    /**
+     * @return the highest number of values that waited to be delivered
+     */
+    public synchronized int getMaxQueueDepth()
+    {
+        return maxQueueDepth;
+    }
+
+    /**
+     * @return the number of values delivered to the listener
+     */
+    public synchronized long getDeliveredCount()
+    {
+        return deliveredCount;
+    }
+
+    /**
+     * @return the number of values dropped by the backpressure policy
+     */
+    public synchronized long getDroppedCount()
+    {
+        return droppedCount;
+    }
+
+    /**
+     * Reset the metrics.
+     */
+    public synchronized void resetMetrics()
+    {
+        maxQueueDepth = size;
+        deliveredCount = 0;
+        droppedCount = 0;
+    }
+
+    /**
+     * Forget the drain task scheduled on the executor, to be called when the executor stopped
+     * without running it. The next value schedules a new one.
+     */
+    protected synchronized void cancelScheduledDrain()
+    {
+        drainScheduled = false;
+    }
+
+    /**
+     * Drop the queued values, counted as dropped. The delivery can still be used afterwards.
+     * A caller-supplied executor is not shut down.
+     */
+    public void release()
+    {
+        synchronized (this) {
+            droppedCount += size;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Table based trigonometry used by the fast math path of JoystickState.
+ *
+ * The angle is computed from a table of atan(t) for t in [0, 1], reduced by octant and linearly
+ * interpolated. With 1024 intervals the interpolation error is below 1e-5 degree and the
+ * float storage adds less than 1e-5 degree, so the result is within 0.001 degree of
+ * Math.toDegrees(Math.atan2(y, x)).
+ *
+ * There is no table for the square root: Math.sqrt is a single instruction on ART and HotSpot,
+ * a lookup can not beat it. The fast path saves it instead, by comparing squared integer
+ * distances for the clamp and computing the root at most once per sample.
+ */
+public final class FastJoystickMath
+{
+    /**
+     * Number of intervals of the atan table over [0, 1]
+     */
+    private static final int ATAN_TABLE_SIZE = 1024;
+
+    /**
+     * atan(i / ATAN_TABLE_SIZE) in degrees, with one more entry to interpolate the last interval
+     */
+    private static final float[] ATAN_TABLE = new float[ATAN_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= ATAN_TABLE_SIZE; i++) {
+            ATAN_TABLE[i] = (float) Math.toDegrees(Math.atan((double) i / ATAN_TABLE_SIZE));
+        }
+    }
+
+    /**
+     * Maximum difference in degrees with Math.toDegrees(Math.atan2(y, x)), angles wrapped to [0, 360)
+     */
+    public static final float MAX_ANGLE_ERROR = 0.001f;
+
+    private FastJoystickMath() {}
+
+    /**
+     * Process the angle following the 360° counter-clock protractor rules.
+     *
+     * @param y coordinate on the y axis, positive upward
+     * @param x coordinate on the x axis
+     * @return the angle in degrees [0, 360), 0 for the origin
+     */
+    public static float atan2Degrees(int y, int x)
+    {
+        int ax = x < 0 ? -x : x;
+        int ay = y < 0 ? -y : y;
+        if (ax == 0 && ay == 0) return 0;
+
+        // Angle of the first quadrant, reduced to the first octant
+        float a = ay <= ax
+                ? atan((float) ay / ax)
+                : 90 - atan((float) ax / ay);
+
+        if (x >= 0) {
+            if (y >= 0) return a;
+            a = 360 - a;
+            return a < 360 ? a : 0;
+        } else {
+            return y >= 0 ? 180 - a : 180 + a;
+        }
+    }
+
+    /**
+     * @param t ratio in [0, 1]
+     * @return atan(t) in degrees
+     */
+    private static float atan(float t)
+    {
+        float f = t * ATAN_TABLE_SIZE;
+        int i = (int) f;
+        if (i >= ATAN_TABLE_SIZE) return ATAN_TABLE[ATAN_TABLE_SIZE];
+
+        float low = ATAN_TABLE[i];
+        return low + (ATAN_TABLE[i + 1] - low) * (f - i);
+    }
+}
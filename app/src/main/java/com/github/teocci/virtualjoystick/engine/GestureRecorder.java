@@ -0,0 +1,271 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Records touch samples into a compact binary trace, read back by GestureReplayer.
+ *
+ * The trace starts with the "JVGT" magic and a version byte. Each sample is then an action byte
+ * followed by the time, x and y deltas from the previous sample as zigzag varints, so a typical
+ * move sample takes 4 bytes. The samples are encoded into one of two preallocated buffers. When
+ * it is full, record() hands it to a writer thread and goes on in the other one, so the touch
+ * handling never waits for the channel. If the writer thread is still busy with the other buffer,
+ * the sample is dropped and counted by getDroppedCount(). Nothing is allocated per sample.
+ *
+ * An I/O error stops the recording without throwing from record(), so the touch handling is
+ * never interrupted. It is kept in getException() and thrown again by flush() and close().
+ *
+ * record(), flush() and close() must be called from a single thread, which is the case of the
+ * views. flush() and close() wait for the writer thread.
+ */
+public class GestureRecorder implements Closeable
+{
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_MOVE = 1;
+    public static final int ACTION_UP = 2;
+
+    static final int MAGIC = 0x4A564754; // "JVGT"
+    static final int VERSION = 1;
+
+    /**
+     * Maximum size of an encoded sample: the action and three varints (a long and two ints)
+     */
+    static final int MAX_SAMPLE_SIZE = 1 + 10 + 5 + 5;
+
+    /**
+     * Default size of the buffer in bytes
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer[] buffers = new ByteBuffer[2];
+    private final Thread writerThread;
+    private final Object lock = new Object();
+
+    // Buffer being filled by record()
+    private ByteBuffer buffer;
+
+    // Full buffer handed to the writer thread, null once it is written
+    private volatile ByteBuffer pending;
+    private volatile boolean running = true;
+
+    private int lastX;
+    private int lastY;
+    private long lastTime;
+
+    private long sampleCount;
+    private long droppedCount;
+    private volatile IOException exception;
+    private boolean closed;
+
+    public GestureRecorder(WritableByteChannel channel)
+    {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public GestureRecorder(WritableByteChannel channel, int bufferSize)
+    {
+        if (bufferSize < MAX_SAMPLE_SIZE + 5) throw new IllegalArgumentException("bufferSize is too small");
+
+        this.channel = channel;
+        buffers[0] = ByteBuffer.allocateDirect(bufferSize);
+        buffers[1] = ByteBuffer.allocateDirect(bufferSize);
+        buffer = buffers[0];
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+
+        writerThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                writeLoop();
+            }
+        }, "GestureRecorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Record a touch sample.
+     *
+     * @param action    ACTION_DOWN, ACTION_MOVE or ACTION_UP
+     * @param x         coordinate of the touch on the x axis
+     * @param y         coordinate of the touch on the y axis
+     * @param eventTime time of the touch in milliseconds
+     */
+    public void record(int action, int x, int y, long eventTime)
+    {
+        if (closed || exception != null) return;
+
+        if (buffer.remaining() < MAX_SAMPLE_SIZE && !handOff()) {
+            // The next sample is encoded from the last recorded one, the trace stays consistent
+            droppedCount++;
+            return;
+        }
+
+        buffer.put((byte) action);
+        putVarLong(buffer, zigzag(eventTime - lastTime));
+        putVarLong(buffer, zigzag(x - lastX));
+        putVarLong(buffer, zigzag(y - lastY));
+
+        lastX = x;
+        lastY = y;
+        lastTime = eventTime;
+        sampleCount++;
+    }
+
+    /**
+     * Write the buffered samples to the channel, and wait until they are written.
+     *
+     * @throws IOException if the channel failed, now or during a previous record()
+     */
+    public void flush() throws IOException
+    {
+        if (exception != null) throw exception;
+        if (closed) return;
+
+        awaitWritten();
+        if (buffer.position() > 0) {
+            handOff();
+            awaitWritten();
+        }
+
+        if (exception != null) throw exception;
+    }
+
+    /**
+     * Flush the buffered samples and close the channel.
+     *
+     * @throws IOException if the channel failed, now or during a previous record()
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed) return;
+
+        try {
+            flush();
+        } finally {
+            closed = true;
+            running = false;
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * @return the number of samples recorded
+     */
+    public long getSampleCount()
+    {
+        return sampleCount;
+    }
+
+    /**
+     * @return the number of samples dropped because the writer thread did not keep up
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount;
+    }
+
+    /**
+     * @return the I/O error that stopped the recording, null if none
+     */
+    public IOException getException()
+    {
+        return exception;
+    }
+
+    /**
+     * Hand the current buffer to the writer thread and go on in the other one.
+     *
+     * @return False if the writer thread is still busy with the other buffer
+     */
+    private boolean handOff()
+    {
+        if (pending != null) return false;
+
+        ByteBuffer full = buffer;
+        buffer = full == buffers[0] ? buffers[1] : buffers[0];
+        pending = full;
+        LockSupport.unpark(writerThread);
+        return true;
+    }
+
+    private void awaitWritten() throws InterruptedIOException
+    {
+        synchronized (lock) {
+            while (pending != null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while flushing the gesture trace");
+                }
+            }
+        }
+    }
+
+    private void writeLoop()
+    {
+        while (true) {
+            ByteBuffer full = pending;
+            if (full == null) {
+                if (!running) return;
+                LockSupport.park(this);
+                continue;
+            }
+
+            full.flip();
+            try {
+                while (full.hasRemaining()) {
+                    channel.write(full);
+                }
+            } catch (IOException e) {
+                exception = e;
+            }
+            full.clear();
+
+            synchronized (lock) {
+                pending = null;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    static long zigzag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value)
+    {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
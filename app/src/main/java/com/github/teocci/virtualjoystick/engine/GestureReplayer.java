@@ -0,0 +1,206 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Reads a trace written by GestureRecorder, either sample by sample with next(), or by
+ * replaying it through a JoystickController. The replay emulates the dispatch scheduler ticks
+ * from the recorded times, so the listeners see the same sequence as on the device, either at
+ * the original speed, faster, or as fast as possible.
+ *
+ * The channel must be blocking: the reader waits in read() for the next samples, e.g. of a pipe
+ * still being recorded, instead of polling.
+ *
+ * This class is not thread-safe, it must be used from a single thread.
+ */
+public class GestureReplayer implements Closeable
+{
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private boolean endOfChannel;
+
+    // Current sample
+    private int action;
+    private int x;
+    private int y;
+    private long eventTime;
+
+    /**
+     * Open a trace, its header is read right away.
+     *
+     * @param channel the blocking channel to read the trace from
+     * @throws IOException if the channel failed or it is not a trace
+     */
+    public GestureReplayer(ReadableByteChannel channel) throws IOException
+    {
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("The channel must be blocking");
+        }
+        this.channel = channel;
+
+        buffer.limit(0);
+        fill();
+        if (buffer.remaining() < 5 || buffer.getInt() != GestureRecorder.MAGIC) {
+            throw new IOException("Not a gesture trace");
+        }
+        int version = buffer.get();
+        if (version != GestureRecorder.VERSION) {
+            throw new IOException("Unsupported gesture trace version: " + version);
+        }
+    }
+
+    /**
+     * Read the next sample.
+     *
+     * @return True if a sample was read, False at the end of the trace
+     * @throws IOException if the channel failed or the trace is truncated
+     */
+    public boolean next() throws IOException
+    {
+        if (buffer.remaining() < GestureRecorder.MAX_SAMPLE_SIZE) {
+            fill();
+        }
+        if (!buffer.hasRemaining()) return false;
+
+        action = buffer.get();
+        eventTime += GestureRecorder.unzigzag(getVarLong());
+        x += (int) GestureRecorder.unzigzag(getVarLong());
+        y += (int) GestureRecorder.unzigzag(getVarLong());
+
+        return true;
+    }
+
+    /**
+     * @return the action of the current sample, one of the GestureRecorder ACTION constants
+     */
+    public int getAction()
+    {
+        return action;
+    }
+
+    public int getX()
+    {
+        return x;
+    }
+
+    public int getY()
+    {
+        return y;
+    }
+
+    public long getEventTime()
+    {
+        return eventTime;
+    }
+
+    /**
+     * Replay the remaining samples through a controller, calling its dispatch() every loop
+     * interval while the button is pressed, like the dispatch scheduler does.
+     *
+     * @param controller   the controller to feed
+     * @param loopInterval interval between two dispatches in milliseconds
+     * @param speed        1 for the original speed, 2 for twice faster, etc. 0 or less to replay
+     *                     as fast as possible without sleeping
+     * @return the number of samples replayed
+     * @throws IOException          if the channel failed or the trace is truncated
+     * @throws InterruptedException if the thread was interrupted while waiting for a sample
+     */
+    public long replay(JoystickController controller, long loopInterval, float speed)
+            throws IOException, InterruptedException
+    {
+        long count = 0;
+        long firstTime = 0;
+        long startTime = System.nanoTime();
+        long nextTick = 0;
+
+        while (next()) {
+            if (count == 0) {
+                firstTime = eventTime;
+            }
+
+            if (speed > 0) {
+                long due = startTime + (long) ((eventTime - firstTime) * 1000000L / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+                }
+            }
+
+            // Emulates the scheduler ticks that fell before this sample
+            while (controller.isPressed() && nextTick <= eventTime) {
+                controller.dispatch(nextTick);
+                nextTick += Math.max(1, loopInterval);
+            }
+
+            switch (action) {
+                case GestureRecorder.ACTION_DOWN:
+                    controller.onDown(x, y, eventTime);
+                    nextTick = eventTime + Math.max(1, loopInterval);
+                    break;
+
+                case GestureRecorder.ACTION_MOVE:
+                    controller.onMove(x, y, eventTime);
+                    break;
+
+                case GestureRecorder.ACTION_UP:
+                    controller.onUp(x, y, eventTime);
+                    break;
+            }
+
+            count++;
+        }
+
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Read until a whole sample is buffered or the channel ends, whatever is available after that
+     * is left for the next fill.
+     */
+    private void fill() throws IOException
+    {
+        if (endOfChannel) return;
+
+        buffer.compact();
+        try {
+            while (buffer.position() < GestureRecorder.MAX_SAMPLE_SIZE) {
+                if (channel.read(buffer) < 0) {
+                    endOfChannel = true;
+                    break;
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    private long getVarLong() throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) throw new EOFException("Truncated gesture trace");
+
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed gesture trace");
+    }
+}
@@ -0,0 +1,360 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Processing applied by JoystickState to the normalized x and y of each sample, before the
+ * angle and the strength are derived from them. The stages run in this order:
+ * - filter: a 1€ filter (Casiez et al.), which is a low-pass filter whose cutoff frequency grows
+ *   with the speed of the button, to remove the jitter at rest without lag on fast moves.
+ *   With a beta of 0 it is a plain first order low-pass filter.
+ * - radial dead zone: a magnitude below the inner dead zone is 0, above the outer one is 1,
+ *   in between it is rescaled to [0, 1] so there is no jump at the edge of the dead zone.
+ * - axial dead zone: the same rescaling on each axis, to ease moving along a single axis.
+ * - response curve: maps the magnitude through a table precomputed when the curve is set,
+ *   either an expo curve, a power curve or any monotonic set of points.
+ *
+ * Every stage is disabled by default. Processing a sample works on primitive fields only and
+ * does not allocate. The button drawn by the views stays at the raw touch position.
+ *
+ * A pipeline holds the filter state of a single stick, it can not be shared between sticks.
+ * This class is not thread-safe, it must be configured and used from a single thread.
+ */
+public class InputPipeline
+{
+    /**
+     * Number of intervals of the response curve table over [0, 1]
+     */
+    private static final int CURVE_TABLE_SIZE = 256;
+
+    /**
+     * Cutoff frequency in Hz of the speed used by the 1€ filter
+     */
+    private static final float DERIVATIVE_CUTOFF = 1f;
+
+    /**
+     * Distance below which the filtered values are considered to have reached the raw ones
+     */
+    private static final float SETTLE_EPSILON = 1e-4f;
+
+    // Dead zones
+    private float radialDeadZone;
+    private float outerDeadZone = 1;
+    private float axialDeadZone;
+
+    // Response curve, magnitude at i / CURVE_TABLE_SIZE with one more entry to interpolate the last interval
+    private final float[] curve = new float[CURVE_TABLE_SIZE + 1];
+    private boolean curveEnabled;
+
+    // Filter configuration
+    private boolean filterEnabled;
+    private float minCutoff;
+    private float beta;
+
+    // Filter state, the last step is the last touch sample or settle step
+    private boolean filterStarted;
+    private long lastSampleTime;
+    private long lastStepTime;
+    private float rawX;
+    private float rawY;
+    private float filteredX;
+    private float filteredY;
+    private float speedX;
+    private float speedY;
+
+    // Output
+    private float x;
+    private float y;
+
+    /**
+     * Set the radial dead zone.
+     *
+     * @param inner magnitude in [0, 1) below which the output is 0
+     * @param outer magnitude in (inner, 1] above which the output is 1
+     */
+    public void setRadialDeadZone(float inner, float outer)
+    {
+        if (inner < 0 || outer > 1 || inner >= outer) {
+            throw new IllegalArgumentException("The dead zone must be 0 <= inner < outer <= 1");
+        }
+        radialDeadZone = inner;
+        outerDeadZone = outer;
+    }
+
+    /**
+     * Set the axial dead zone.
+     *
+     * @param deadZone value in [0, 1) below which each axis is 0
+     */
+    public void setAxialDeadZone(float deadZone)
+    {
+        if (deadZone < 0 || deadZone >= 1) {
+            throw new IllegalArgumentException("The dead zone must be in [0, 1)");
+        }
+        axialDeadZone = deadZone;
+    }
+
+    /**
+     * Set an expo response curve, f(m) = (1 - expo) * m + expo * m^3. It gives more precision
+     * around the center while keeping the full range.
+     *
+     * @param expo amount of expo in [0, 1], 0 for linear
+     */
+    public void setExpo(float expo)
+    {
+        if (expo < 0 || expo > 1) throw new IllegalArgumentException("The expo must be in [0, 1]");
+
+        for (int i = 0; i <= CURVE_TABLE_SIZE; i++) {
+            float m = (float) i / CURVE_TABLE_SIZE;
+            curve[i] = (1 - expo) * m + expo * m * m * m;
+        }
+        curveEnabled = expo > 0;
+    }
+
+    /**
+     * Set a power response curve, f(m) = m^exponent.
+     *
+     * @param exponent exponent of the curve, more than 1 for more precision around the center
+     */
+    public void setPowerCurve(float exponent)
+    {
+        if (exponent <= 0) throw new IllegalArgumentException("The exponent must be positive");
+
+        for (int i = 0; i <= CURVE_TABLE_SIZE; i++) {
+            curve[i] = (float) Math.pow((double) i / CURVE_TABLE_SIZE, exponent);
+        }
+        curveEnabled = exponent != 1;
+    }
+
+    /**
+     * Set a custom response curve, linearly interpolated between the given points.
+     *
+     * @param points output magnitudes in [0, 1] for inputs evenly spaced from 0 to 1, at least 2
+     */
+    public void setResponseCurve(float[] points)
+    {
+        if (points == null || points.length < 2) {
+            throw new IllegalArgumentException("The curve needs at least 2 points");
+        }
+
+        int last = points.length - 1;
+        for (int i = 0; i <= CURVE_TABLE_SIZE; i++) {
+            float position = (float) i * last / CURVE_TABLE_SIZE;
+            int index = Math.min((int) position, last - 1);
+            float value = points[index] + (points[index + 1] - points[index]) * (position - index);
+            curve[i] = Math.min(1, Math.max(0, value));
+        }
+        curveEnabled = true;
+    }
+
+    /**
+     * Remove the response curve, the magnitude is then linear.
+     */
+    public void setLinearCurve()
+    {
+        curveEnabled = false;
+    }
+
+    /**
+     * Enable the 1€ filter.
+     *
+     * @param minCutoff cutoff frequency in Hz at rest, lower removes more jitter but adds lag
+     * @param beta      growth of the cutoff frequency with the speed, higher reduces the lag
+     *                  of fast moves, 0 for a plain low-pass filter
+     */
+    public void setOneEuroFilter(float minCutoff, float beta)
+    {
+        if (minCutoff <= 0 || beta < 0) {
+            throw new IllegalArgumentException("The cutoff must be positive and beta not negative");
+        }
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+        filterEnabled = true;
+        filterStarted = false;
+    }
+
+    /**
+     * Enable a first order low-pass filter, the same as a 1€ filter with a beta of 0.
+     *
+     * @param cutoff cutoff frequency in Hz
+     */
+    public void setLowPassFilter(float cutoff)
+    {
+        setOneEuroFilter(cutoff, 0);
+    }
+
+    /**
+     * Disable the filter.
+     */
+    public void setFilterDisabled()
+    {
+        filterEnabled = false;
+        filterStarted = false;
+    }
+
+    public boolean isFilterEnabled()
+    {
+        return filterEnabled;
+    }
+
+    /**
+     * Process a sample, the result is read with getX() and getY().
+     *
+     * @param rawX      normalized x in [-1, 1]
+     * @param rawY      normalized y in [-1, 1]
+     * @param eventTime time of the sample in milliseconds
+     */
+    public void process(float rawX, float rawY, long eventTime)
+    {
+        this.rawX = rawX;
+        this.rawY = rawY;
+
+        apply(eventTime, false);
+    }
+
+    /**
+     * Process the last raw sample again at a later time, so the filtered values keep moving
+     * toward a button held still while no new touch sample comes.
+     *
+     * @param now current time in milliseconds
+     */
+    public void settle(long now)
+    {
+        apply(now, true);
+    }
+
+    private void apply(long time, boolean settle)
+    {
+        float fx = rawX;
+        float fy = rawY;
+        if (filterEnabled) {
+            filter(time, settle);
+            fx = filteredX;
+            fy = filteredY;
+        }
+
+        // Radial dead zone, rescaled so the output starts from 0 at its edge
+        float magnitude = (float) Math.sqrt(fx * fx + fy * fy);
+        if (magnitude <= radialDeadZone) {
+            x = y = 0;
+            return;
+        }
+        float scaled = Math.min(1, (magnitude - radialDeadZone) / (outerDeadZone - radialDeadZone));
+        fx = fx / magnitude * scaled;
+        fy = fy / magnitude * scaled;
+
+        if (axialDeadZone > 0) {
+            fx = applyAxialDeadZone(fx);
+            fy = applyAxialDeadZone(fy);
+        }
+
+        if (curveEnabled) {
+            magnitude = (float) Math.sqrt(fx * fx + fy * fy);
+            if (magnitude > 0) {
+                float ratio = lookupCurve(Math.min(1, magnitude)) / magnitude;
+                fx *= ratio;
+                fy *= ratio;
+            }
+        }
+
+        x = fx;
+        y = fy;
+    }
+
+    /**
+     * @return True while the filtered values have not reached the last raw sample
+     */
+    public boolean isSettling()
+    {
+        return filterEnabled && filterStarted
+                && (Math.abs(filteredX - rawX) > SETTLE_EPSILON || Math.abs(filteredY - rawY) > SETTLE_EPSILON);
+    }
+
+    /**
+     * Forget the filter state, the next sample is taken as is. Called when the button is released.
+     */
+    public void reset()
+    {
+        filterStarted = false;
+        x = y = 0;
+    }
+
+    public float getX()
+    {
+        return x;
+    }
+
+    public float getY()
+    {
+        return y;
+    }
+
+    /**
+     * @param time   time of the touch sample or of the settle step in milliseconds
+     * @param settle True for a settle step
+     */
+    private void filter(long time, boolean settle)
+    {
+        if (!filterStarted) {
+            filterStarted = true;
+            filteredX = rawX;
+            filteredY = rawY;
+            speedX = speedY = 0;
+            lastSampleTime = lastStepTime = time;
+            return;
+        }
+
+        // The touch samples of a MotionEvent are older than the tick that may have settled the
+        // filter meanwhile, such a sample is filtered from the previous touch sample
+        long previous = settle || time > lastStepTime ? lastStepTime : lastSampleTime;
+
+        // Samples of the same millisecond are filtered with the previous one
+        if (time <= previous) return;
+
+        float dt = (time - previous) / 1000f;
+        if (!settle) {
+            lastSampleTime = time;
+        }
+        lastStepTime = Math.max(lastStepTime, time);
+
+        // Speed of the filtered values, itself low-pass filtered
+        float speedAlpha = alpha(DERIVATIVE_CUTOFF, dt);
+        speedX += speedAlpha * ((rawX - filteredX) / dt - speedX);
+        speedY += speedAlpha * ((rawY - filteredY) / dt - speedY);
+
+        // The cutoff grows with the speed of the vector, so both axes are filtered alike
+        float speed = (float) Math.sqrt(speedX * speedX + speedY * speedY);
+        float alpha = alpha(minCutoff + beta * speed, dt);
+        filteredX += alpha * (rawX - filteredX);
+        filteredY += alpha * (rawY - filteredY);
+    }
+
+    private float applyAxialDeadZone(float value)
+    {
+        float abs = Math.abs(value);
+        if (abs <= axialDeadZone) return 0;
+
+        float scaled = (abs - axialDeadZone) / (1 - axialDeadZone);
+        return value < 0 ? -scaled : scaled;
+    }
+
+    private float lookupCurve(float magnitude)
+    {
+        float position = magnitude * CURVE_TABLE_SIZE;
+        int index = Math.min((int) position, CURVE_TABLE_SIZE - 1);
+        return curve[index] + (curve[index + 1] - curve[index]) * (position - index);
+    }
+
+    /**
+     * @param cutoff cutoff frequency in Hz
+     * @param dt     time since the previous sample in seconds
+     * @return the smoothing factor of a first order low-pass filter
+     */
+    private static float alpha(float cutoff, float dt)
+    {
+        float tau = 1 / (2 * (float) Math.PI * cutoff);
+        return dt / (dt + tau);
+    }
+}
@@ -0,0 +1,407 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import com.github.teocci.virtualjoystick.interfaces.OnMoveBatchListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Input and dispatch path of a joystick, without any Android dependency: it turns the touch
+ * samples into the JoystickState and sends the values to the listeners. JoystickView feeds it
+ * from its MotionEvents and calls dispatch() on every scheduler tick. The same path can be
+ * driven from the JVM, e.g. by a GestureReplayer.
+ *
+ * This class is not thread-safe, it must be used from a single thread.
+ */
+public class JoystickController
+{
+    /**
+     * Dispatch mode sending the move values through callback every loop interval
+     */
+    public static final int DISPATCH_MODE_FIXED_INTERVAL = 0;
+
+    /**
+     * Dispatch mode sending the move values through callback only when they changed more than
+     * the deadband. The loop interval is then the sampling period and caps the dispatch rate.
+     */
+    public static final int DISPATCH_MODE_ON_CHANGE = 1;
+
+    /**
+     * Button position and the values derived from it, computed once per sample
+     */
+    private final JoystickState state = new JoystickState();
+
+    /**
+     * Used to adapt behavior whether it is auto-defined center (false) or fixed center (true)
+     */
+    private boolean fixedCenter = true;
+
+    private boolean pressed;
+
+    /**
+     * Listener used to dispatch OnMove event, an OnMoveListener is wrapped in a MoveListenerAdapter
+     */
+    private OnPreciseMoveListener callback;
+
+    /**
+     * Listener used to dispatch every sample collected since the last dispatch
+     */
+    private OnMoveBatchListener batchListener;
+    private SampleBatch batch;
+
+    private int dispatchMode = DISPATCH_MODE_FIXED_INTERVAL;
+
+    /**
+     * Used to filter the values in DISPATCH_MODE_ON_CHANGE and to count the dispatched values
+     */
+    private final ChangeGate changeGate = new ChangeGate();
+
+    /**
+     * Latency instrumentation, null unless enabled
+     */
+    private LatencyMonitor latencyMonitor;
+
+    /**
+     * Records the touch samples, null unless recording
+     */
+    private GestureRecorder gestureRecorder;
+
+    /**
+     * Logs the dispatched values, null unless enabled
+     */
+    private TelemetryLog telemetryLog;
+
+    /**
+     * Picks the dispatch interval, null unless enabled
+     */
+    private AdaptiveRateController adaptiveRate;
+
+    /**
+     * Time taken by the listener on the last dispatch in nanoseconds, -1 if it was not invoked
+     */
+    private long callbackNanos = -1;
+
+    /**
+     * Handle the first touch. The center is moved to it if the center is auto-defined.
+     * The values are dispatched right away.
+     *
+     * @param x         coordinate of the touch on the x axis
+     * @param y         coordinate of the touch on the y axis
+     * @param eventTime time of the touch in milliseconds
+     */
+    public void onDown(int x, int y, long eventTime)
+    {
+        if (gestureRecorder != null) {
+            gestureRecorder.record(GestureRecorder.ACTION_DOWN, x, y, eventTime);
+        }
+
+        pressed = true;
+
+        // When the first touch occurs we update the center (if set to auto-defined center)
+        if (!fixedCenter) {
+            state.setCenter(x, y);
+        }
+
+        state.moveTo(x, y, eventTime);
+        addSample();
+
+        if (adaptiveRate != null) {
+            adaptiveRate.reset(state.getX(), state.getY(), state.getEventTime());
+        }
+
+        dispatch(eventTime, false);
+    }
+
+    /**
+     * Handle a touch sample, the values are sent on the next dispatch.
+     *
+     * @param x         coordinate of the touch on the x axis
+     * @param y         coordinate of the touch on the y axis
+     * @param eventTime time of the touch in milliseconds
+     */
+    public void onMove(int x, int y, long eventTime)
+    {
+        if (gestureRecorder != null) {
+            gestureRecorder.record(GestureRecorder.ACTION_MOVE, x, y, eventTime);
+        }
+
+        // Clamps the button to the border and computes the move values once
+        state.moveTo(x, y, eventTime);
+        addSample();
+
+        if (adaptiveRate != null) {
+            adaptiveRate.addSample(state.getX(), state.getY(), state.getEventTime());
+        }
+    }
+
+    /**
+     * Handle the release. The button goes back to the center and the values are dispatched
+     * right away, even in DISPATCH_MODE_ON_CHANGE, so the listener never misses the rest position.
+     *
+     * @param x         coordinate of the touch on the x axis
+     * @param y         coordinate of the touch on the y axis
+     * @param eventTime time of the release in milliseconds
+     */
+    public void onUp(int x, int y, long eventTime)
+    {
+        if (gestureRecorder != null) {
+            gestureRecorder.record(GestureRecorder.ACTION_UP, x, y, eventTime);
+        }
+
+        pressed = false;
+
+        state.reset(eventTime);
+        addSample();
+
+        dispatch(eventTime, true);
+    }
+
+    /**
+     * Handle a gesture interrupted by the system, e.g. ACTION_CANCEL or the view being hidden.
+     * It is released like onUp() at the last button position. Does nothing if not pressed.
+     *
+     * @param eventTime time of the cancellation in milliseconds
+     */
+    public void onCancel(long eventTime)
+    {
+        if (!pressed) return;
+
+        onUp(state.getPosX(), state.getPosY(), eventTime);
+    }
+
+    /**
+     * Send the current move values through callback, to be called every loop interval
+     * while the button is pressed. With an AdaptiveRateController, the loop interval until the
+     * next call is then given by getDispatchInterval(), and the change gate caps the rate to it.
+     *
+     * @param now current time in milliseconds
+     */
+    public void dispatch(long now)
+    {
+        dispatch(now, false);
+
+        if (adaptiveRate != null) {
+            adaptiveRate.update(now, callbackNanos);
+            changeGate.setTickInterval(adaptiveRate.getEffectiveInterval());
+        }
+    }
+
+    /**
+     * Send the current move values through callback, according to the dispatch mode.
+     *
+     * @param now     current time in milliseconds
+     * @param release True if the values come from the button being released
+     */
+    private void dispatch(long now, boolean release)
+    {
+        if (!release) {
+            state.settle(now);
+        }
+
+        if (batchListener != null && batch.size() > 0) {
+            batchListener.onMoveBatch(batch);
+            batch.clear();
+        }
+
+        callbackNanos = -1;
+        if (callback == null && telemetryLog == null) return;
+
+        boolean force = release || dispatchMode == DISPATCH_MODE_FIXED_INTERVAL;
+
+        if (changeGate.offer((int) state.getAngle(), (int) state.getStrength(), now, force)) {
+            if (telemetryLog != null) {
+                telemetryLog.write(
+                        state.getEventTime(),
+                        state.getX(),
+                        state.getY(),
+                        state.getAngle(),
+                        state.getStrength(),
+                        state.getPosX(),
+                        state.getPosY()
+                );
+            }
+
+            if (callback == null) return;
+
+            boolean timed = latencyMonitor != null || adaptiveRate != null;
+            long start = timed ? System.nanoTime() : 0;
+
+            callback.onPreciseMove(
+                    state.getX(),
+                    state.getY(),
+                    state.getAngle(),
+                    state.getStrength(),
+                    state.getEventTime()
+            );
+
+            if (timed) {
+                long end = System.nanoTime();
+                callbackNanos = end - start;
+
+                if (latencyMonitor != null) {
+                    latencyMonitor.recordCallback(state.getInputSequence(), state.getEventTime(), start, end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Append the last touch to the batch, if a batch listener is registered. The position is
+     * taken before the prediction and the input pipeline, only clamped to the border, so the
+     * batch holds the trajectory of the finger.
+     */
+    private void addSample()
+    {
+        if (batchListener == null) return;
+
+        int borderRadius = state.getBorderRadius();
+        float x = 0;
+        float y = 0;
+        if (borderRadius > 0) {
+            x = (float) (state.getTouchX() - state.getCenterX()) / borderRadius;
+            y = (float) (state.getCenterY() - state.getTouchY()) / borderRadius;
+
+            float length = (float) Math.sqrt(x * x + y * y);
+            if (length > 1) {
+                x /= length;
+                y /= length;
+            }
+        }
+        batch.add(x, y, state.getEventTime());
+    }
+
+    public JoystickState getState()
+    {
+        return state;
+    }
+
+    /**
+     * @return True between the first touch and the release
+     */
+    public boolean isPressed()
+    {
+        return pressed;
+    }
+
+    public void setFixedCenter(boolean fixedCenter)
+    {
+        this.fixedCenter = fixedCenter;
+    }
+
+    public boolean isFixedCenter()
+    {
+        return fixedCenter;
+    }
+
+    public void setOnPreciseMoveListener(OnPreciseMoveListener l)
+    {
+        callback = l;
+    }
+
+    public OnPreciseMoveListener getOnPreciseMoveListener()
+    {
+        return callback;
+    }
+
+    /**
+     * Register a callback to be invoked on every dispatch with all the samples collected
+     * since the last dispatch.
+     *
+     * @param l        The callback that will run
+     * @param capacity Maximum number of samples kept between two calls, the oldest are dropped
+     */
+    public void setOnMoveBatchListener(OnMoveBatchListener l, int capacity)
+    {
+        batchListener = l;
+        if (l == null) {
+            batch = null;
+        } else if (batch == null || batch.capacity() != capacity) {
+            batch = new SampleBatch(capacity);
+        }
+    }
+
+    public void setDispatchMode(int mode)
+    {
+        dispatchMode = mode;
+        changeGate.reset();
+    }
+
+    public int getDispatchMode()
+    {
+        return dispatchMode;
+    }
+
+    public ChangeGate getChangeGate()
+    {
+        return changeGate;
+    }
+
+    public void setLatencyMonitor(LatencyMonitor latencyMonitor)
+    {
+        this.latencyMonitor = latencyMonitor;
+    }
+
+    /**
+     * Record every touch sample with the given recorder, null to stop recording.
+     * The recorder is not closed by the controller.
+     *
+     * @param gestureRecorder the recorder to write to
+     */
+    public void setGestureRecorder(GestureRecorder gestureRecorder)
+    {
+        this.gestureRecorder = gestureRecorder;
+    }
+
+    public GestureRecorder getGestureRecorder()
+    {
+        return gestureRecorder;
+    }
+
+    /**
+     * Log every dispatched value with the button position, null to stop logging.
+     * The log is not closed by the controller.
+     *
+     * @param telemetryLog the log to write to
+     */
+    public void setTelemetryLog(TelemetryLog telemetryLog)
+    {
+        this.telemetryLog = telemetryLog;
+    }
+
+    public TelemetryLog getTelemetryLog()
+    {
+        return telemetryLog;
+    }
+
+    /**
+     * Adapt the dispatch interval to the velocity of the button and to the listener cost,
+     * null to go back to a fixed loop interval.
+     *
+     * @param adaptiveRate the controller picking the interval
+     */
+    public void setAdaptiveRateController(AdaptiveRateController adaptiveRate)
+    {
+        this.adaptiveRate = adaptiveRate;
+
+        if (adaptiveRate != null) {
+            changeGate.setTickInterval(adaptiveRate.getEffectiveInterval());
+        }
+    }
+
+    public AdaptiveRateController getAdaptiveRateController()
+    {
+        return adaptiveRate;
+    }
+
+    /**
+     * @param loopInterval the fixed loop interval in milliseconds
+     * @return the interval until the next dispatch in milliseconds, the fixed loop interval
+     * unless an AdaptiveRateController is set
+     */
+    public long getDispatchInterval(long loopInterval)
+    {
+        return adaptiveRate != null ? adaptiveRate.getEffectiveInterval() : loopInterval;
+    }
+}
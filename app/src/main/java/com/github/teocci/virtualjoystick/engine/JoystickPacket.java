@@ -0,0 +1,132 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Fixed-size binary packet of a joystick sample, as sent by UdpJoystickSink. All the fields are
+ * big-endian, at fixed offsets, so a receiver in any language can decode it without a schema:
+ * - 0:  int   magic, "JVSP"
+ * - 4:  int   sequence number, incremented for every packet sent, to detect losses and reordering
+ * - 8:  long  event time of the sample in milliseconds, SystemClock.uptimeMillis() on Android
+ * - 16: short x normalized in [-1, 1] as a signed Q15 fixed point
+ * - 18: short y normalized in [-1, 1] as a signed Q15 fixed point, positive upward
+ * - 20: short angle in tenths of degree [0, 3599]
+ * - 22: short strength in tenths of percentage [0, 1000]
+ *
+ * The getters read at absolute positions, they neither allocate nor move the buffer position.
+ */
+public final class JoystickPacket
+{
+    public static final int MAGIC = 0x4A565350; // "JVSP"
+
+    /**
+     * Size of a packet in bytes
+     */
+    public static final int SIZE = 24;
+
+    private static final int OFFSET_SEQUENCE = 4;
+    private static final int OFFSET_TIME = 8;
+    private static final int OFFSET_X = 16;
+    private static final int OFFSET_Y = 18;
+    private static final int OFFSET_ANGLE = 20;
+    private static final int OFFSET_STRENGTH = 22;
+
+    private static final float Q15 = 32767f;
+
+    private JoystickPacket() {}
+
+    /**
+     * Write a packet at the position of the buffer, which is moved after it.
+     *
+     * @param buffer    the buffer to write to, in big-endian order
+     * @param sequence  sequence number of the packet
+     * @param eventTime time of the sample in milliseconds
+     * @param x         position on the x axis normalized in [-1, 1]
+     * @param y         position on the y axis normalized in [-1, 1]
+     * @param angle     angle in degrees [0, 360)
+     * @param strength  strength in percentage [0, 100]
+     */
+    public static void write(ByteBuffer buffer, int sequence, long eventTime,
+                             float x, float y, float angle, float strength)
+    {
+        buffer.putInt(MAGIC);
+        buffer.putInt(sequence);
+        buffer.putLong(eventTime);
+        buffer.putShort((short) clamp(Math.round(x * Q15), -32767, 32767));
+        buffer.putShort((short) clamp(Math.round(y * Q15), -32767, 32767));
+        buffer.putShort((short) clamp(Math.round(angle * 10), 0, 3599));
+        buffer.putShort((short) clamp(Math.round(strength * 10), 0, 1000));
+    }
+
+    /**
+     * @param packet buffer holding a packet from its position
+     * @return True if the buffer holds a whole packet starting with the magic
+     */
+    public static boolean isValid(ByteBuffer packet)
+    {
+        return packet.remaining() >= SIZE && packet.getInt(packet.position()) == MAGIC;
+    }
+
+    /**
+     * @param packet buffer holding a packet from its position
+     * @return the sequence number of the packet
+     */
+    public static int getSequence(ByteBuffer packet)
+    {
+        return packet.getInt(packet.position() + OFFSET_SEQUENCE);
+    }
+
+    /**
+     * @param packet buffer holding a packet from its position
+     * @return the time of the sample in milliseconds
+     */
+    public static long getEventTime(ByteBuffer packet)
+    {
+        return packet.getLong(packet.position() + OFFSET_TIME);
+    }
+
+    /**
+     * @param packet buffer holding a packet from its position
+     * @return the position on the x axis normalized in [-1, 1]
+     */
+    public static float getX(ByteBuffer packet)
+    {
+        return packet.getShort(packet.position() + OFFSET_X) / Q15;
+    }
+
+    /**
+     * @param packet buffer holding a packet from its position
+     * @return the position on the y axis normalized in [-1, 1]
+     */
+    public static float getY(ByteBuffer packet)
+    {
+        return packet.getShort(packet.position() + OFFSET_Y) / Q15;
+    }
+
+    /**
+     * @param packet buffer holding a packet from its position
+     * @return the angle in degrees, with a precision of a tenth of degree
+     */
+    public static float getAngle(ByteBuffer packet)
+    {
+        return packet.getShort(packet.position() + OFFSET_ANGLE) / 10f;
+    }
+
+    /**
+     * @param packet buffer holding a packet from its position
+     * @return the strength in percentage, with a precision of a tenth of percent
+     */
+    public static float getStrength(ByteBuffer packet)
+    {
+        return packet.getShort(packet.position() + OFFSET_STRENGTH) / 10f;
+    }
+
+    private static int clamp(int value, int min, int max)
+    {
+        return value < min ? min : value > max ? max : value;
+    }
+}
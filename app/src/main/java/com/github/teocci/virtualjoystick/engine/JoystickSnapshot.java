@@ -0,0 +1,121 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Packs a joystick sample into a single long, so it can be published with one volatile write
+ * and read from any thread with one volatile read, without lock nor allocation. A reader always
+ * gets a consistent sample, and can compare the sequence numbers to know if it changed.
+ *
+ * Layout, from the least significant bit:
+ * - 16 bits: x normalized in [-1, 1] as a signed Q15 fixed point
+ * - 16 bits: y normalized in [-1, 1] as a signed Q15 fixed point
+ * - 12 bits: angle in tenths of degree [0, 3599]
+ * - 20 bits: sequence number
+ *
+ * The strength is not stored, it is always the length of the (x, y) vector in percentage, so it
+ * is derived from them and its bits go to the sequence number.
+ *
+ * The sequence number wraps around every SEQUENCE_MODULO samples, over two hours of samples at
+ * 120 Hz. A reader comparing it with the last one it saw misses a change only if it did not look
+ * for exactly a multiple of SEQUENCE_MODULO samples.
+ */
+public final class JoystickSnapshot
+{
+    private static final float Q15 = 32767f;
+
+    private static final int ANGLE_SHIFT = 32;
+    private static final int SEQUENCE_SHIFT = 44;
+
+    private static final long MASK_16 = 0xFFFFL;
+    private static final long MASK_12 = 0xFFFL;
+    private static final long MASK_20 = 0xFFFFFL;
+
+    /**
+     * Number of distinct sequence numbers before wrapping around
+     */
+    public static final int SEQUENCE_MODULO = 1 << 20;
+
+    private JoystickSnapshot() {}
+
+    /**
+     * Pack a sample into a long.
+     *
+     * @param x        position on the x axis normalized in [-1, 1]
+     * @param y        position on the y axis normalized in [-1, 1]
+     * @param angle    angle in degrees [0, 360)
+     * @param sequence sequence number, only its 20 lower bits are kept
+     * @return the packed sample
+     */
+    public static long pack(float x, float y, float angle, int sequence)
+    {
+        long qx = toQ15(x) & MASK_16;
+        long qy = toQ15(y) & MASK_16;
+        long qAngle = clamp(Math.round(angle * 10), 0, 3599) & MASK_12;
+        long qSequence = sequence & MASK_20;
+
+        return qx
+                | qy << 16
+                | qAngle << ANGLE_SHIFT
+                | qSequence << SEQUENCE_SHIFT;
+    }
+
+    /**
+     * @param snapshot the packed sample
+     * @return the position on the x axis normalized in [-1, 1]
+     */
+    public static float getX(long snapshot)
+    {
+        return (short) (snapshot & MASK_16) / Q15;
+    }
+
+    /**
+     * @param snapshot the packed sample
+     * @return the position on the y axis normalized in [-1, 1]
+     */
+    public static float getY(long snapshot)
+    {
+        return (short) (snapshot >>> 16 & MASK_16) / Q15;
+    }
+
+    /**
+     * @param snapshot the packed sample
+     * @return the angle in degrees, with a precision of a tenth of degree
+     */
+    public static float getAngle(long snapshot)
+    {
+        return (snapshot >>> ANGLE_SHIFT & MASK_12) / 10f;
+    }
+
+    /**
+     * @param snapshot the packed sample
+     * @return the strength in percentage [0, 100], derived from x and y
+     */
+    public static float getStrength(long snapshot)
+    {
+        float x = getX(snapshot);
+        float y = getY(snapshot);
+        return Math.min(100, 100 * (float) Math.sqrt(x * x + y * y));
+    }
+
+    /**
+     * @param snapshot the packed sample
+     * @return the sequence number in [0, SEQUENCE_MODULO)
+     */
+    public static int getSequence(long snapshot)
+    {
+        return (int) (snapshot >>> SEQUENCE_SHIFT & MASK_20);
+    }
+
+    private static int toQ15(float value)
+    {
+        return clamp(Math.round(value * Q15), -32767, 32767);
+    }
+
+    private static int clamp(int value, int min, int max)
+    {
+        return value < min ? min : value > max ? max : value;
+    }
+}
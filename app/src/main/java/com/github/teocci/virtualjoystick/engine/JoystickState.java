@@ -0,0 +1,452 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Position of a joystick button and the values derived from it. The button is clamped to the
+ * border and every value is computed once per sample, so that the listeners do not need to
+ * redo any trigonometry:
+ * - x and y are normalized in [-1, 1], y grows upward like the angle protractor
+ * - angle is in degrees following the 360° counter-clock protractor rules
+ * - strength is the percentage of the distance between the center and the border
+ *
+ * The values can be computed in double precision (default) or by a fast path, see setFastMath().
+ * An InputPipeline can process x and y before the angle and the strength are derived from them,
+ * the button position stays at the raw touch. A MotionPredictor can extrapolate the touch ahead
+ * before it is clamped, in which case the button is drawn at the predicted position too.
+ *
+ * The state must be updated from a single thread, but each update is also published as a
+ * JoystickSnapshot that any other thread can read at any time with getSnapshot(), and the button
+ * position with getButtonPosition().
+ */
+public class JoystickState
+{
+    /**
+     * Scale of the processed x and y given to the integer fast math angle
+     */
+    private static final float PIPELINE_ANGLE_SCALE = 1 << 20;
+
+    // Geometry
+    private int centerX;
+    private int centerY;
+    private int borderRadius;
+    private long borderRadiusSquared;
+    private float strengthScale;
+
+    // Button position, in view coordinates
+    private int posX;
+    private int posY;
+
+    // Last touch, before the prediction and the clamp
+    private int touchX;
+    private int touchY;
+
+    // Derived values
+    private float x;
+    private float y;
+    private float angle;
+    private float strength;
+    private long eventTime;
+
+    /**
+     * Number of input samples, advanced by moveTo() and reset() but not by settle(), which
+     * publishes new values for an old sample
+     */
+    private int inputSequence;
+
+    // Published sample, see JoystickSnapshot
+    private int sequence;
+    private volatile long snapshot;
+
+    // Published button offset from the center, see getButtonPosition()
+    private volatile long buttonPosition;
+
+    private boolean fastMath;
+
+    private InputPipeline pipeline;
+    private MotionPredictor predictor;
+
+    /**
+     * Set the center of the joystick. The button is not moved.
+     *
+     * @param centerX center coordinate on the x axis
+     * @param centerY center coordinate on the y axis
+     */
+    public void setCenter(int centerX, int centerY)
+    {
+        this.centerX = centerX;
+        this.centerY = centerY;
+    }
+
+    /**
+     * Set the maximum distance between the center and the button.
+     *
+     * @param borderRadius radius of the border in pixels
+     */
+    public void setBorderRadius(int borderRadius)
+    {
+        this.borderRadius = borderRadius;
+
+        // Precomputed for the fast math path
+        borderRadiusSquared = (long) borderRadius * borderRadius;
+        strengthScale = borderRadius > 0 ? 100f / borderRadius : 0;
+    }
+
+    /**
+     * Set whether to compute the values with the fast math path. It computes the clamp, the angle
+     * and the strength in a single pass: the clamp compares squared integer distances, the square
+     * root is computed only once and the angle comes from FastJoystickMath tables.
+     * The angle is within FastJoystickMath.MAX_ANGLE_ERROR degree of the double precision path and
+     * the strength within 0.01 percent. A clamped button is the exception: its values come from
+     * the exact touch direction with a strength of 100, instead of its truncated coordinates.
+     *
+     * @param fastMath True to use the fast math path
+     */
+    public void setFastMath(boolean fastMath)
+    {
+        this.fastMath = fastMath;
+    }
+
+    public boolean isFastMath()
+    {
+        return fastMath;
+    }
+
+    /**
+     * Set the processing applied to x and y, null for none (default).
+     *
+     * @param pipeline the pipeline, used by this state only
+     */
+    public void setInputPipeline(InputPipeline pipeline)
+    {
+        this.pipeline = pipeline;
+    }
+
+    public InputPipeline getInputPipeline()
+    {
+        return pipeline;
+    }
+
+    /**
+     * Set the predictor extrapolating the touch position, null for none (default).
+     *
+     * @param predictor the predictor, used by this state only
+     */
+    public void setMotionPredictor(MotionPredictor predictor)
+    {
+        this.predictor = predictor;
+    }
+
+    public MotionPredictor getMotionPredictor()
+    {
+        return predictor;
+    }
+
+    /**
+     * Move the button to the given position, or its prediction, clamped to the border, and update
+     * all the values.
+     *
+     * @param rawX      coordinate of the touch on the x axis
+     * @param rawY      coordinate of the touch on the y axis
+     * @param eventTime time of the sample in milliseconds
+     */
+    public void moveTo(int rawX, int rawY, long eventTime)
+    {
+        inputSequence++;
+        touchX = rawX;
+        touchY = rawY;
+
+        if (predictor != null) {
+            predictor.add(rawX, rawY, eventTime, borderRadius);
+            rawX = predictor.getPredictedX();
+            rawY = predictor.getPredictedY();
+        }
+
+        place(rawX, rawY, eventTime);
+    }
+
+    private void place(int rawX, int rawY, long eventTime)
+    {
+        if (fastMath) {
+            moveToFast(rawX, rawY, eventTime);
+            return;
+        }
+
+        int dx = rawX - centerX;
+        int dy = rawY - centerY;
+        double abs = Math.sqrt(dx * dx + dy * dy);
+
+        if (abs > borderRadius) {
+            // The offset is truncated toward the center, so the button never goes past the border
+            posX = centerX + (int) (dx * borderRadius / abs);
+            posY = centerY + (int) (dy * borderRadius / abs);
+        } else {
+            posX = rawX;
+            posY = rawY;
+        }
+
+        update(eventTime);
+    }
+
+    private void moveToFast(int rawX, int rawY, long eventTime)
+    {
+        int dx = rawX - centerX;
+        int dy = rawY - centerY;
+        long distanceSquared = (long) dx * dx + (long) dy * dy;
+
+        this.eventTime = eventTime;
+
+        if (borderRadius <= 0 || distanceSquared == 0) {
+            posX = centerX;
+            posY = centerY;
+            x = y = angle = strength = 0;
+        } else {
+            float distance = (float) Math.sqrt(distanceSquared);
+
+            if (distanceSquared > borderRadiusSquared) {
+                float scale = borderRadius / distance;
+                posX = centerX + (int) (dx * scale);
+                posY = centerY + (int) (dy * scale);
+                x = dx / distance;
+                y = -dy / distance;
+                strength = 100;
+            } else {
+                posX = rawX;
+                posY = rawY;
+                x = (float) dx / borderRadius;
+                y = (float) -dy / borderRadius;
+                strength = distance * strengthScale;
+            }
+
+            angle = FastJoystickMath.atan2Degrees(-dy, dx);
+        }
+
+        if (pipeline != null) {
+            pipeline.process(x, y, eventTime);
+            applyPipeline();
+        }
+
+        publish();
+    }
+
+    /**
+     * Move the button back to the center.
+     *
+     * @param eventTime time of the sample in milliseconds
+     */
+    public void reset(long eventTime)
+    {
+        inputSequence++;
+        posX = touchX = centerX;
+        posY = touchY = centerY;
+
+        // The rest position is not filtered nor predicted
+        if (pipeline != null) {
+            pipeline.reset();
+        }
+        if (predictor != null) {
+            predictor.reset();
+        }
+
+        update(eventTime);
+    }
+
+    /**
+     * Catch up with a finger held still. To be called on every dispatch, as no touch sample comes
+     * while the finger does not move: a stale prediction moves the button back to the last touch,
+     * and the input pipeline filter moves toward it. The event time and the input sequence do
+     * not change, so the values are not measured as a new input by the LatencyMonitor.
+     *
+     * @param now current time in milliseconds
+     */
+    public void settle(long now)
+    {
+        if (predictor != null && predictor.expire(now)) {
+            place(predictor.getLastX(), predictor.getLastY(), eventTime);
+        }
+
+        if (pipeline == null || !pipeline.isSettling()) return;
+
+        pipeline.settle(now);
+        applyPipeline();
+
+        publish();
+    }
+
+    private void update(long eventTime)
+    {
+        this.eventTime = eventTime;
+
+        int dx = posX - centerX;
+        int dy = centerY - posY;
+
+        if (borderRadius <= 0 || (dx == 0 && dy == 0)) {
+            x = y = angle = strength = 0;
+        } else {
+            x = (float) dx / borderRadius;
+            y = (float) dy / borderRadius;
+
+            double degrees = Math.toDegrees(Math.atan2(dy, dx));
+            angle = (float) (degrees < 0 ? degrees + 360 : degrees); // make it as a regular counter-clock protractor
+            strength = (float) (100 * Math.sqrt(dx * dx + dy * dy) / borderRadius);
+        }
+
+        if (pipeline != null) {
+            pipeline.process(x, y, eventTime);
+            applyPipeline();
+        }
+
+        publish();
+    }
+
+    /**
+     * Take x and y from the pipeline and derive the angle and the strength from them.
+     */
+    private void applyPipeline()
+    {
+        x = pipeline.getX();
+        y = pipeline.getY();
+
+        if (x == 0 && y == 0) {
+            angle = strength = 0;
+            return;
+        }
+
+        float magnitude = (float) Math.sqrt(x * x + y * y);
+        strength = Math.min(100, 100 * magnitude);
+
+        if (fastMath) {
+            angle = FastJoystickMath.atan2Degrees(Math.round(y * PIPELINE_ANGLE_SCALE), Math.round(x * PIPELINE_ANGLE_SCALE));
+        } else {
+            double degrees = Math.toDegrees(Math.atan2(y, x));
+            angle = (float) (degrees < 0 ? degrees + 360 : degrees);
+        }
+    }
+
+    private void publish()
+    {
+        sequence++;
+        snapshot = JoystickSnapshot.pack(x, y, angle, sequence);
+        buttonPosition = (long) (posX - centerX) << 32 | (posY - centerY) & 0xFFFFFFFFL;
+    }
+
+    public int getCenterX()
+    {
+        return centerX;
+    }
+
+    public int getCenterY()
+    {
+        return centerY;
+    }
+
+    public int getBorderRadius()
+    {
+        return borderRadius;
+    }
+
+    public int getPosX()
+    {
+        return posX;
+    }
+
+    public int getPosY()
+    {
+        return posY;
+    }
+
+    /**
+     * @return the coordinate of the last touch on the x axis, neither predicted nor clamped
+     */
+    public int getTouchX()
+    {
+        return touchX;
+    }
+
+    /**
+     * @return the coordinate of the last touch on the y axis, neither predicted nor clamped
+     */
+    public int getTouchY()
+    {
+        return touchY;
+    }
+
+    public float getX()
+    {
+        return x;
+    }
+
+    public float getY()
+    {
+        return y;
+    }
+
+    public float getAngle()
+    {
+        return angle;
+    }
+
+    public float getStrength()
+    {
+        return strength;
+    }
+
+    public long getEventTime()
+    {
+        return eventTime;
+    }
+
+    /**
+     * @return the number of input samples since the creation, which wraps around; unlike the
+     * snapshot sequence it does not change when settle() publishes new values
+     */
+    public int getInputSequence()
+    {
+        return inputSequence;
+    }
+
+    /**
+     * Return the last published sample. Like getButtonPosition(), it can be called from any
+     * thread, the value is decoded with the JoystickSnapshot getters. Its sequence number wraps
+     * around every JoystickSnapshot.SEQUENCE_MODULO samples.
+     *
+     * @return the packed sample
+     */
+    public long getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * Return the last published button position, as its offset in pixels from the center. Unlike
+     * the snapshot values, which are the output of the input pipeline, this is where the button is
+     * drawn. Like getSnapshot(), it can be called from any thread, the offsets are decoded with
+     * getButtonOffsetX() and getButtonOffsetY().
+     *
+     * @return the packed offsets
+     */
+    public long getButtonPosition()
+    {
+        return buttonPosition;
+    }
+
+    /**
+     * @param buttonPosition the packed offsets returned by getButtonPosition()
+     * @return the offset of the button from the center on the x axis, in pixels
+     */
+    public static int getButtonOffsetX(long buttonPosition)
+    {
+        return (int) (buttonPosition >> 32);
+    }
+
+    /**
+     * @param buttonPosition the packed offsets returned by getButtonPosition()
+     * @return the offset of the button from the center on the y axis, in pixels, growing downward
+     */
+    public static int getButtonOffsetY(long buttonPosition)
+    {
+        return (int) buttonPosition;
+    }
+}
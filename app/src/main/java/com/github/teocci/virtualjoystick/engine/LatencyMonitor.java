@@ -0,0 +1,100 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Latency measurements of a joystick, all in nanoseconds:
+ * - input to callback: from the MotionEvent time of a new sample to its listener invocation
+ * - callback: time spent in the listener
+ * - input to draw: from the MotionEvent time of a new sample to the onDraw showing it
+ * - draw: time spent in onDraw
+ *
+ * A sample is only measured the first time it is dispatched or drawn, a held button repeated
+ * by the dispatch loop would otherwise count the hold time as latency. The samples are told apart
+ * by JoystickState.getInputSequence(), so the values settled from an old sample while the
+ * finger is held still are not measured either.
+ *
+ * The event times are in the SystemClock.uptimeMillis() base, which on Android shares its
+ * monotonic clock with System.nanoTime(), so both can be compared directly.
+ */
+public class LatencyMonitor
+{
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final LatencyHistogram inputToCallback = new LatencyHistogram();
+    private final LatencyHistogram callback = new LatencyHistogram();
+    private final LatencyHistogram inputToDraw = new LatencyHistogram();
+    private final LatencyHistogram draw = new LatencyHistogram();
+
+    private int lastDispatchedSequence = -1;
+    private int lastDrawnSequence = -1;
+
+    /**
+     * Record a listener invocation.
+     *
+     * @param inputSequence the input sequence of the dispatched sample, see JoystickState
+     * @param eventTime     time of the sample in milliseconds
+     * @param startTime     System.nanoTime() before the invocation
+     * @param endTime       System.nanoTime() after the invocation
+     */
+    public void recordCallback(int inputSequence, long eventTime, long startTime, long endTime)
+    {
+        callback.record(endTime - startTime);
+
+        if (inputSequence != lastDispatchedSequence) {
+            lastDispatchedSequence = inputSequence;
+            inputToCallback.record(startTime - eventTime * NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * Record an onDraw.
+     *
+     * @param inputSequence the input sequence of the drawn sample, see JoystickState
+     * @param eventTime     time of the sample in milliseconds
+     * @param startTime     System.nanoTime() at the beginning of onDraw
+     * @param endTime       System.nanoTime() at the end of onDraw
+     */
+    public void recordDraw(int inputSequence, long eventTime, long startTime, long endTime)
+    {
+        draw.record(endTime - startTime);
+
+        if (inputSequence != lastDrawnSequence) {
+            lastDrawnSequence = inputSequence;
+            inputToDraw.record(startTime - eventTime * NANOS_PER_MILLI);
+        }
+    }
+
+    public LatencyHistogram getInputToCallback()
+    {
+        return inputToCallback;
+    }
+
+    public LatencyHistogram getCallback()
+    {
+        return callback;
+    }
+
+    public LatencyHistogram getInputToDraw()
+    {
+        return inputToDraw;
+    }
+
+    public LatencyHistogram getDraw()
+    {
+        return draw;
+    }
+
+    /**
+     * Remove all the measurements.
+     */
+    public void reset()
+    {
+        inputToCallback.reset();
+        callback.reset();
+        inputToDraw.reset();
+        draw.reset();
+    }
+}
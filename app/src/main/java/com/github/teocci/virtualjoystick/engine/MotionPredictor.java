@@ -0,0 +1,318 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Extrapolates the touch position a few milliseconds ahead to hide the latency of the touch
+ * pipeline. The velocity is the least squares fit of the recent samples over their event times,
+ * and the prediction is the last sample moved by that velocity over the horizon.
+ *
+ * The prediction falls back to the last sample when it can not be trusted:
+ * - fewer than 3 samples in the window, e.g. right after the first touch
+ * - the last segment goes against the fitted velocity, i.e. the finger reverses
+ * - the samples do not fit a line well enough, see setMinFitQuality()
+ * - no sample came for the stale time, i.e. the finger stopped, see expire()
+ * and the extrapolated distance is limited to a ratio of the border radius.
+ *
+ * The samples are kept in a preallocated ring, predicting does not allocate.
+ * A predictor holds the samples of a single stick, it can not be shared between sticks.
+ * This class is not thread-safe, it must be configured and used from a single thread.
+ */
+public class MotionPredictor
+{
+    /**
+     * Default time in milliseconds the position is extrapolated ahead
+     */
+    public static final long DEFAULT_HORIZON = 30;
+
+    /**
+     * Default maximum number of samples used to fit the velocity
+     */
+    public static final int DEFAULT_MAX_SAMPLES = 6;
+
+    /**
+     * Default maximum age in milliseconds of the samples used to fit the velocity
+     */
+    public static final long DEFAULT_MAX_AGE = 60;
+
+    private static final int MIN_SAMPLES = 3;
+
+    private long horizon = DEFAULT_HORIZON;
+    private long maxAge = DEFAULT_MAX_AGE;
+    private long staleTime = 2 * DEFAULT_HORIZON;
+    private float maxDistance = 0.5f;
+    private float minFitQuality = 0.5f;
+
+    // Ring of the recent samples
+    private int[] sampleX;
+    private int[] sampleY;
+    private long[] sampleTime;
+    private int head;
+    private int count;
+
+    // Last sample and prediction
+    private int lastX;
+    private int lastY;
+    private long lastTime;
+    private int predictedX;
+    private int predictedY;
+    private boolean predicting;
+
+    public MotionPredictor()
+    {
+        setMaxSamples(DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * Set how far ahead the position is extrapolated. The stale time is set to twice the horizon.
+     *
+     * @param horizon time in milliseconds, 0 to report the last sample
+     */
+    public void setHorizon(long horizon)
+    {
+        if (horizon < 0) throw new IllegalArgumentException("The horizon can not be negative");
+
+        this.horizon = horizon;
+        staleTime = 2 * horizon;
+    }
+
+    public long getHorizon()
+    {
+        return horizon;
+    }
+
+    /**
+     * Set the maximum number of samples used to fit the velocity. More samples are less sensitive
+     * to noise but slower to follow a change of speed.
+     *
+     * @param maxSamples number of samples, at least 3
+     */
+    public void setMaxSamples(int maxSamples)
+    {
+        if (maxSamples < MIN_SAMPLES) throw new IllegalArgumentException("maxSamples must be at least " + MIN_SAMPLES);
+
+        sampleX = new int[maxSamples];
+        sampleY = new int[maxSamples];
+        sampleTime = new long[maxSamples];
+        reset();
+    }
+
+    /**
+     * Set the maximum age of the samples used to fit the velocity, relative to the last one.
+     *
+     * @param maxAge time in milliseconds
+     */
+    public void setMaxAge(long maxAge)
+    {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Set the time without sample after which the finger is considered stopped and the prediction
+     * is dropped.
+     *
+     * @param staleTime time in milliseconds
+     */
+    public void setStaleTime(long staleTime)
+    {
+        this.staleTime = staleTime;
+    }
+
+    /**
+     * Set the maximum distance between the last sample and the prediction.
+     *
+     * @param maxDistance ratio of the border radius
+     */
+    public void setMaxDistance(float maxDistance)
+    {
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Set the minimum coefficient of determination of the fit for a prediction to be made.
+     * A finger moving along a straight line at a constant speed is close to 1, noise or a curve
+     * lower it.
+     *
+     * @param minFitQuality value in [0, 1], 0 to always predict
+     */
+    public void setMinFitQuality(float minFitQuality)
+    {
+        this.minFitQuality = minFitQuality;
+    }
+
+    /**
+     * Add a touch sample and compute the prediction, read with getPredictedX() and getPredictedY().
+     *
+     * @param x            coordinate of the touch on the x axis
+     * @param y            coordinate of the touch on the y axis
+     * @param eventTime    time of the sample in milliseconds
+     * @param borderRadius radius of the border in pixels, used to limit the prediction
+     */
+    public void add(int x, int y, long eventTime, int borderRadius)
+    {
+        sampleX[head] = x;
+        sampleY[head] = y;
+        sampleTime[head] = eventTime;
+        head = (head + 1) % sampleX.length;
+        if (count < sampleX.length) count++;
+
+        lastX = x;
+        lastY = y;
+        lastTime = eventTime;
+
+        predict(borderRadius);
+    }
+
+    /**
+     * Drop the prediction if no sample came for the stale time. The samples are forgotten, so the
+     * next prediction is only made once the finger moved for a few samples again.
+     *
+     * @param now current time in milliseconds
+     * @return True if a prediction was dropped, the position is then back to the last sample
+     */
+    public boolean expire(long now)
+    {
+        if (count == 0 || now - lastTime <= staleTime) return false;
+
+        count = 0;
+        predictedX = lastX;
+        predictedY = lastY;
+
+        boolean dropped = predicting;
+        predicting = false;
+        return dropped;
+    }
+
+    /**
+     * Forget all the samples. Called when the button is released.
+     */
+    public void reset()
+    {
+        head = 0;
+        count = 0;
+        predicting = false;
+    }
+
+    /**
+     * @return True if the last prediction differs from the last sample
+     */
+    public boolean isPredicting()
+    {
+        return predicting;
+    }
+
+    public int getPredictedX()
+    {
+        return predictedX;
+    }
+
+    public int getPredictedY()
+    {
+        return predictedY;
+    }
+
+    public int getLastX()
+    {
+        return lastX;
+    }
+
+    public int getLastY()
+    {
+        return lastY;
+    }
+
+    public long getLastTime()
+    {
+        return lastTime;
+    }
+
+    private void predict(int borderRadius)
+    {
+        predictedX = lastX;
+        predictedY = lastY;
+        predicting = false;
+
+        if (horizon == 0) return;
+
+        // Sums of the least squares fit, the times are relative to the last sample
+        int n = 0;
+        double sumT = 0, sumTT = 0, sumX = 0, sumY = 0, sumTX = 0, sumTY = 0;
+        int capacity = sampleX.length;
+        for (int i = 1; i <= count; i++) {
+            int index = (head - i + capacity) % capacity;
+            long t = sampleTime[index] - lastTime;
+            if (-t > maxAge) break;
+
+            double x = sampleX[index] - lastX;
+            double y = sampleY[index] - lastY;
+            sumT += t;
+            sumTT += t * t;
+            sumX += x;
+            sumY += y;
+            sumTX += t * x;
+            sumTY += t * y;
+            n++;
+        }
+        if (n < MIN_SAMPLES) return;
+
+        double denominator = n * sumTT - sumT * sumT;
+        if (denominator <= 0) return;
+
+        double vx = (n * sumTX - sumT * sumX) / denominator;
+        double vy = (n * sumTY - sumT * sumY) / denominator;
+        if (vx == 0 && vy == 0) return;
+
+        // Direction reversal: the last segment goes against the fitted velocity
+        int previous = (head - 2 + capacity) % capacity;
+        int segmentX = lastX - sampleX[previous];
+        int segmentY = lastY - sampleY[previous];
+        if (segmentX * vx + segmentY * vy <= 0) return;
+
+        if (minFitQuality > 0 && fitQuality(n, sumT, sumX, sumY, vx, vy) < minFitQuality) return;
+
+        double dx = vx * horizon;
+        double dy = vy * horizon;
+
+        // Confidence limit on the extrapolated distance
+        double limit = maxDistance * borderRadius;
+        double distanceSquared = dx * dx + dy * dy;
+        if (distanceSquared > limit * limit) {
+            double scale = limit / Math.sqrt(distanceSquared);
+            dx *= scale;
+            dy *= scale;
+        }
+
+        predictedX = lastX + (int) Math.round(dx);
+        predictedY = lastY + (int) Math.round(dy);
+        predicting = predictedX != lastX || predictedY != lastY;
+    }
+
+    /**
+     * @return the coefficient of determination of the fit of both axes, 1 if the samples are
+     * all on the fitted lines
+     */
+    private double fitQuality(int n, double sumT, double sumX, double sumY, double vx, double vy)
+    {
+        double meanT = sumT / n;
+        double meanX = sumX / n;
+        double meanY = sumY / n;
+
+        double total = 0;
+        double residual = 0;
+        int capacity = sampleX.length;
+        for (int i = 1; i <= n; i++) {
+            int index = (head - i + capacity) % capacity;
+            double t = sampleTime[index] - lastTime - meanT;
+            double x = sampleX[index] - lastX - meanX;
+            double y = sampleY[index] - lastY - meanY;
+
+            total += x * x + y * y;
+            double ex = x - vx * t;
+            double ey = y - vy * t;
+            residual += ex * ex + ey * ey;
+        }
+        return total > 0 ? 1 - residual / total : 0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Preallocated batch of button samples (x, y, event time) collected between two dispatches.
+ * The positions are normalized in [-1, 1] like in OnPreciseMoveListener. When the batch is
+ * full the oldest samples are overwritten, so it always holds the most recent trajectory.
+ *
+ * The same instance is reused for every dispatch, a listener must copy what it wants to keep.
+ */
+public class SampleBatch
+{
+    /**
+     * Default number of samples kept between two dispatches
+     */
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final float[] xs;
+    private final float[] ys;
+    private final long[] eventTimes;
+
+    private int start;
+    private int size;
+    private long droppedCount;
+
+    public SampleBatch()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SampleBatch(int capacity)
+    {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+
+        xs = new float[capacity];
+        ys = new float[capacity];
+        eventTimes = new long[capacity];
+    }
+
+    /**
+     * Append a sample at the end of the batch, overwriting the oldest one if full.
+     *
+     * @param x         position on the x axis normalized in [-1, 1]
+     * @param y         position on the y axis normalized in [-1, 1]
+     * @param eventTime time of the sample in milliseconds
+     */
+    public void add(float x, float y, long eventTime)
+    {
+        int capacity = xs.length;
+        int index;
+        if (size < capacity) {
+            index = (start + size) % capacity;
+            size++;
+        } else {
+            index = start;
+            start = (start + 1) % capacity;
+            droppedCount++;
+        }
+
+        xs[index] = x;
+        ys[index] = y;
+        eventTimes[index] = eventTime;
+    }
+
+    /**
+     * Remove all the samples. The dropped counter is kept.
+     */
+    public void clear()
+    {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * @return the number of samples in the batch
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public int capacity()
+    {
+        return xs.length;
+    }
+
+    /**
+     * @param i index of the sample, 0 being the oldest
+     * @return the normalized position on the x axis
+     */
+    public float getX(int i)
+    {
+        return xs[indexOf(i)];
+    }
+
+    /**
+     * @param i index of the sample, 0 being the oldest
+     * @return the normalized position on the y axis
+     */
+    public float getY(int i)
+    {
+        return ys[indexOf(i)];
+    }
+
+    /**
+     * @param i index of the sample, 0 being the oldest
+     * @return the time of the sample in milliseconds
+     */
+    public long getEventTime(int i)
+    {
+        return eventTimes[indexOf(i)];
+    }
+
+    /**
+     * @return the number of samples overwritten because the batch was full
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount;
+    }
+
+    private int indexOf(int i)
+    {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index: " + i + ", size: " + size);
+        return (start + i) % xs.length;
+    }
+}
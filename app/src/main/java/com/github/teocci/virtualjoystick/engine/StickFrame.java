@@ -0,0 +1,103 @@
+package com.github.teocci.virtualjoystick.engine;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Preallocated frame holding the values of several sticks sampled at the same time, so they
+ * can be delivered in one callback. The values follow OnPreciseMoveListener: x and y normalized
+ * in [-1, 1], angle in degrees and strength in percentage.
+ *
+ * The same instance is reused for every dispatch, a listener must copy what it wants to keep.
+ */
+public class StickFrame
+{
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] angles;
+    private final float[] strengths;
+    private final long[] eventTimes;
+    private final boolean[] active;
+
+    private long frameTime;
+
+    public StickFrame(int stickCount)
+    {
+        xs = new float[stickCount];
+        ys = new float[stickCount];
+        angles = new float[stickCount];
+        strengths = new float[stickCount];
+        eventTimes = new long[stickCount];
+        active = new boolean[stickCount];
+    }
+
+    /**
+     * Copy the values of a stick into the frame.
+     *
+     * @param i      index of the stick
+     * @param state  current state of the stick
+     * @param active True if the stick is being touched
+     */
+    public void set(int i, JoystickState state, boolean active)
+    {
+        xs[i] = state.getX();
+        ys[i] = state.getY();
+        angles[i] = state.getAngle();
+        strengths[i] = state.getStrength();
+        eventTimes[i] = state.getEventTime();
+        this.active[i] = active;
+    }
+
+    public void setFrameTime(long frameTime)
+    {
+        this.frameTime = frameTime;
+    }
+
+    /**
+     * @return the time of the dispatch tick that sampled this frame, in milliseconds
+     */
+    public long getFrameTime()
+    {
+        return frameTime;
+    }
+
+    public int getStickCount()
+    {
+        return xs.length;
+    }
+
+    public float getX(int i)
+    {
+        return xs[i];
+    }
+
+    public float getY(int i)
+    {
+        return ys[i];
+    }
+
+    public float getAngle(int i)
+    {
+        return angles[i];
+    }
+
+    public float getStrength(int i)
+    {
+        return strengths[i];
+    }
+
+    public long getEventTime(int i)
+    {
+        return eventTimes[i];
+    }
+
+    /**
+     * @param i index of the stick
+     * @return True if the stick was being touched when the frame was sampled
+     */
+    public boolean isActive(int i)
+    {
+        return active[i];
+    }
+}
@@ -0,0 +1,361 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Telemetry of the dispatched values, written into a memory-mapped file as a ring of fixed-width
+ * records. A record is a few absolute puts into the mapped buffer, nothing is allocated and the
+ * OS writes the pages back to the file in the background, so hours of 100+ Hz dispatch cost no GC.
+ *
+ * The file starts with a HEADER_SIZE bytes header, then capacity records of RECORD_SIZE bytes,
+ * all little-endian:
+ * - header: int magic "JVTL", int version, int record size, int capacity, int rollover policy,
+ *   long number of records written since the creation
+ * - record: long event time, int sequence number, float x, float y, float angle, float strength,
+ *   short posX, short posY
+ *
+ * When the ring is full, ROLLOVER_OVERWRITE replaces the oldest records and ROLLOVER_STOP keeps
+ * the first ones and counts the dropped records. The count in the header is updated after each
+ * record, so a Reader finds the records of a log that was not closed, e.g. after a crash.
+ *
+ * The sequence number of a record is its guard: the writer replaces it by its complement before
+ * the other fields and writes it last. A Reader checks it before and after copying a record, so
+ * a record being written, left half written by a crash, or overwritten by the ring while a live
+ * log is read, is skipped instead of read torn.
+ *
+ * The log must be written from a single thread.
+ */
+public class TelemetryLog implements Closeable
+{
+    public static final int ROLLOVER_OVERWRITE = 0;
+    public static final int ROLLOVER_STOP = 1;
+
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 32;
+
+    private static final int MAGIC = 0x4A56544C; // "JVTL"
+    private static final int VERSION = 1;
+
+    // Header offsets
+    private static final int HEADER_RECORD_SIZE = 8;
+    private static final int HEADER_CAPACITY = 12;
+    private static final int HEADER_POLICY = 16;
+    private static final int HEADER_COUNT = 24;
+
+    // Record offsets
+    private static final int RECORD_TIME = 0;
+    private static final int RECORD_SEQUENCE = 8;
+    private static final int RECORD_X = 12;
+    private static final int RECORD_Y = 16;
+    private static final int RECORD_ANGLE = 20;
+    private static final int RECORD_STRENGTH = 24;
+    private static final int RECORD_POS_X = 28;
+    private static final int RECORD_POS_Y = 30;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int policy;
+
+    private long count;
+    private long droppedCount;
+
+    /**
+     * Create a log, an existing file is overwritten.
+     *
+     * @param path     the file to write to
+     * @param capacity number of records kept in the ring
+     * @param policy   ROLLOVER_OVERWRITE or ROLLOVER_STOP
+     * @throws IOException if the file could not be created or mapped
+     */
+    public TelemetryLog(File path, int capacity, int policy) throws IOException
+    {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+
+        this.capacity = capacity;
+        this.policy = policy;
+
+        long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("capacity is too large");
+
+        file = new RandomAccessFile(path, "rw");
+        try {
+            file.setLength(0);
+            file.setLength(size);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        buffer.putInt(HEADER_CAPACITY, capacity);
+        buffer.putInt(HEADER_POLICY, policy);
+        buffer.putLong(HEADER_COUNT, 0);
+    }
+
+    /**
+     * Append a record.
+     *
+     * @param eventTime time of the sample in milliseconds
+     * @param x         position on the x axis normalized in [-1, 1]
+     * @param y         position on the y axis normalized in [-1, 1]
+     * @param angle     angle in degrees
+     * @param strength  strength in percentage
+     * @param posX      button position on the x axis in pixels
+     * @param posY      button position on the y axis in pixels
+     */
+    public void write(long eventTime, float x, float y, float angle, float strength, int posX, int posY)
+    {
+        if (count >= capacity && policy == ROLLOVER_STOP) {
+            droppedCount++;
+            return;
+        }
+
+        int offset = HEADER_SIZE + (int) (count % capacity) * RECORD_SIZE;
+        int sequence = (int) count;
+        buffer.putInt(offset + RECORD_SEQUENCE, ~sequence);
+        buffer.putLong(offset + RECORD_TIME, eventTime);
+        buffer.putFloat(offset + RECORD_X, x);
+        buffer.putFloat(offset + RECORD_Y, y);
+        buffer.putFloat(offset + RECORD_ANGLE, angle);
+        buffer.putFloat(offset + RECORD_STRENGTH, strength);
+        buffer.putShort(offset + RECORD_POS_X, (short) posX);
+        buffer.putShort(offset + RECORD_POS_Y, (short) posY);
+        buffer.putInt(offset + RECORD_SEQUENCE, sequence);
+
+        count++;
+        buffer.putLong(HEADER_COUNT, count);
+    }
+
+    /**
+     * @return the number of records written since the creation, including the overwritten ones
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return the number of records dropped by ROLLOVER_STOP
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Force the records to the storage. Not needed for the records to survive a crash of the
+     * app, only of the device.
+     */
+    public void flush()
+    {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        buffer.force();
+        file.close();
+    }
+
+    /**
+     * Iterates the records of a log from the oldest to the newest. Each record is copied from the
+     * mapped file into primitive fields by next(), nothing is allocated per record. The records
+     * that do not pass the sequence check are skipped and counted by getTornCount().
+     */
+    public static class Reader implements Closeable
+    {
+        private final RandomAccessFile file;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final long count;
+        private final long first;
+
+        private long index;
+        private long tornCount;
+
+        // Current record
+        private long eventTime;
+        private int sequence;
+        private float x;
+        private float y;
+        private float angle;
+        private float strength;
+        private int posX;
+        private int posY;
+
+        /**
+         * Open a log. The records written after the opening are not read.
+         *
+         * @param path the file to read
+         * @throws IOException if the file could not be mapped or is not a valid telemetry log
+         */
+        public Reader(File path) throws IOException
+        {
+            file = new RandomAccessFile(path, "r");
+            try {
+                buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+                if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                    throw new IOException("Not a telemetry log");
+                }
+                if (buffer.getInt(4) != VERSION || buffer.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+                    throw new IOException("Unsupported telemetry log version: " + buffer.getInt(4));
+                }
+                capacity = buffer.getInt(HEADER_CAPACITY);
+                count = buffer.getLong(HEADER_COUNT);
+                if (capacity < 1 || count < 0) {
+                    throw new IOException("Corrupt telemetry log");
+                }
+                if (buffer.capacity() < HEADER_SIZE + (long) capacity * RECORD_SIZE) {
+                    throw new IOException("Truncated telemetry log");
+                }
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            }
+
+            first = Math.max(0, count - capacity);
+            index = first;
+        }
+
+        /**
+         * @return the number of records available
+         */
+        public int size()
+        {
+            return (int) (count - first);
+        }
+
+        /**
+         * @return the number of records overwritten by the ring before the oldest available one
+         */
+        public long getOverwrittenCount()
+        {
+            return first;
+        }
+
+        /**
+         * @return the number of records skipped because they were being written or overwritten
+         */
+        public long getTornCount()
+        {
+            return tornCount;
+        }
+
+        /**
+         * Move to the next whole record.
+         *
+         * @return True if there is a record, False at the end of the log
+         */
+        public boolean next()
+        {
+            while (index < count) {
+                int offset = HEADER_SIZE + (int) (index % capacity) * RECORD_SIZE;
+                int expected = (int) index;
+                index++;
+
+                if (read(offset, expected)) return true;
+                tornCount++;
+            }
+            return false;
+        }
+
+        /**
+         * Go back before the oldest record.
+         */
+        public void rewind()
+        {
+            index = first;
+            tornCount = 0;
+        }
+
+        /**
+         * Copy a record, checking its sequence number before and after.
+         *
+         * @return False if the record is not the expected one or changed during the copy
+         */
+        private boolean read(int offset, int expected)
+        {
+            if (buffer.getInt(offset + RECORD_SEQUENCE) != expected) return false;
+
+            eventTime = buffer.getLong(offset + RECORD_TIME);
+            x = buffer.getFloat(offset + RECORD_X);
+            y = buffer.getFloat(offset + RECORD_Y);
+            angle = buffer.getFloat(offset + RECORD_ANGLE);
+            strength = buffer.getFloat(offset + RECORD_STRENGTH);
+            posX = buffer.getShort(offset + RECORD_POS_X);
+            posY = buffer.getShort(offset + RECORD_POS_Y);
+            sequence = expected;
+
+            return buffer.getInt(offset + RECORD_SEQUENCE) == expected;
+        }
+
+        public long getEventTime()
+        {
+            return eventTime;
+        }
+
+        public int getSequence()
+        {
+            return sequence;
+        }
+
+        public float getX()
+        {
+            return x;
+        }
+
+        public float getY()
+        {
+            return y;
+        }
+
+        public float getAngle()
+        {
+            return angle;
+        }
+
+        public float getStrength()
+        {
+            return strength;
+        }
+
+        public int getPosX()
+        {
+            return posX;
+        }
+
+        public int getPosY()
+        {
+            return posY;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            file.close();
+        }
+    }
+}
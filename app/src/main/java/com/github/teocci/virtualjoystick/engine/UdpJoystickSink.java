@@ -0,0 +1,222 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Listener streaming every move value to a remote host as a JoystickPacket over UDP.
+ *
+ * Neither the constructor nor onPreciseMove() touch the network, so the sink can be created on
+ * the main thread and registered directly on a JoystickView: onPreciseMove() only stores the
+ * values and wakes the sender thread up. The sender thread connects the channel to the target,
+ * a connection failure stops it and is reported by getLastException(). Then it writes the
+ * packet to a non-blocking DatagramChannel from a direct buffer. When the link backs up, it waits
+ * for the channel to be writable and then sends the latest values only: the values stored in the
+ * meantime are coalesced, a controlled device has no use for an outdated position.
+ * Nothing is allocated per packet.
+ *
+ * The values are handed to the sender thread through a sequence lock: the version is odd while
+ * they are written, and the sender reads them again if the version changed during its read.
+ * onPreciseMove() must be called from a single thread, which is the case of the views.
+ */
+public class UdpJoystickSink implements OnPreciseMoveListener, Closeable
+{
+    /**
+     * Maximum time in milliseconds the sender thread waits for the channel to be writable
+     */
+    private static final long WRITABLE_TIMEOUT = 100;
+
+    private final SocketAddress target;
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(JoystickPacket.SIZE);
+    private final Thread senderThread;
+
+    private volatile boolean running = true;
+
+    // Values handed to the sender thread, guarded by version
+    private volatile int version;
+    private volatile float x;
+    private volatile float y;
+    private volatile float angle;
+    private volatile float strength;
+    private volatile long eventTime;
+
+    // Metrics
+    private volatile long offeredCount;
+    private volatile long sentCount;
+    private volatile long errorCount;
+    private volatile IOException lastException;
+
+    /**
+     * Open the channel and start the sender thread, which connects it to the target.
+     *
+     * @param target address of the receiver
+     * @throws IOException if the channel could not be opened
+     */
+    public UdpJoystickSink(SocketAddress target) throws IOException
+    {
+        this.target = target;
+        channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        senderThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                sendLoop();
+            }
+        }, "UdpJoystickSink");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+
+    @Override // OnPreciseMoveListener
+    public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+    {
+        int v = version;
+        version = v + 1;
+        this.x = x;
+        this.y = y;
+        this.angle = angle;
+        this.strength = strength;
+        this.eventTime = eventTime;
+        version = v + 2;
+
+        offeredCount++;
+        LockSupport.unpark(senderThread);
+    }
+
+    private void sendLoop()
+    {
+        try {
+            channel.connect(target);
+        } catch (IOException e) {
+            errorCount++;
+            lastException = e;
+            return;
+        }
+
+        // The values offered before the thread started are sent too
+        int sentVersion = 0;
+        int sequence = 0;
+
+        while (running) {
+            int v = version;
+            if (v == sentVersion) {
+                LockSupport.park(this);
+                continue;
+            }
+            if ((v & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+
+            buffer.clear();
+            JoystickPacket.write(buffer, sequence, eventTime, x, y, angle, strength);
+            if (version != v) continue; // Written meanwhile, read the latest values again
+            buffer.flip();
+
+            try {
+                if (channel.write(buffer) == 0) {
+                    // The send buffer is full, wait for room then send the latest values
+                    selector.select(WRITABLE_TIMEOUT);
+                    selector.selectedKeys().clear();
+                    continue;
+                }
+                sentVersion = v;
+                sequence++;
+                sentCount++;
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                // e.g. ICMP port unreachable while the receiver is not started yet, not fatal
+                sentVersion = v;
+                errorCount++;
+                lastException = e;
+            }
+        }
+    }
+
+    /**
+     * @return the number of values received from the joystick
+     */
+    public long getOfferedCount()
+    {
+        return offeredCount;
+    }
+
+    /**
+     * @return the number of packets sent
+     */
+    public long getSentCount()
+    {
+        return sentCount;
+    }
+
+    /**
+     * @return the number of values replaced by newer ones before being sent
+     */
+    public long getCoalescedCount()
+    {
+        return Math.max(0, offeredCount - sentCount - errorCount);
+    }
+
+    /**
+     * @return the number of packets that failed to be sent
+     */
+    public long getErrorCount()
+    {
+        return errorCount;
+    }
+
+    /**
+     * @return the last send error, null if none
+     */
+    public IOException getLastException()
+    {
+        return lastException;
+    }
+
+    /**
+     * Stop the sender thread and close the channel. The values not sent yet are dropped.
+     *
+     * @throws IOException if the channel failed to close
+     */
+    @Override
+    public void close() throws IOException
+    {
+        running = false;
+        LockSupport.unpark(senderThread);
+        selector.wakeup();
+        try {
+            senderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            selector.close();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.teocci.virtualjoystick.interfaces;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Interface definition for a callback to be invoked by the DispatchScheduler
+ * every time the registered interval has elapsed.
+ */
+public interface OnDispatchListener
+{
+    /**
+     * Called on the main thread when a dispatch tick is due.
+     *
+     * @param uptimeMillis the time of the tick in the {@link android.os.SystemClock#uptimeMillis()} base
+     */
+    void onDispatch(long uptimeMillis);
+}
@@ -0,0 +1,25 @@
+package com.github.teocci.virtualjoystick.interfaces;
+
+import com.github.teocci.virtualjoystick.engine.SampleBatch;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Interface definition for a callback to be invoked with every sample of the button
+ * trajectory, including the historical ones batched by MotionEvent.
+ *
+ * The samples are the touch positions clamped to the border: unlike the values sent to the move
+ * listeners, they are neither predicted by a MotionPredictor nor processed by an InputPipeline.
+ */
+public interface OnMoveBatchListener
+{
+    /**
+     * Called when new samples have been collected since the last call. The batch is reused
+     * and cleared after this call returns.
+     *
+     * @param batch the samples in chronological order
+     */
+    void onMoveBatch(SampleBatch batch);
+}
@@ -0,0 +1,22 @@
+package com.github.teocci.virtualjoystick.interfaces;
+
+import com.github.teocci.virtualjoystick.engine.StickFrame;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Interface definition for a callback to be invoked with the values of several sticks
+ * sampled at the same time.
+ */
+public interface OnMultiMoveListener
+{
+    /**
+     * Called every dispatch tick while at least one stick is touched, and once more when the
+     * last one is released. The frame is reused after this call returns.
+     *
+     * @param frame the values of all the sticks
+     */
+    void onMultiMove(StickFrame frame);
+}
@@ -0,0 +1,23 @@
+package com.github.teocci.virtualjoystick.interfaces;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Interface definition for a callback to be invoked when a JoystickView's button is moved,
+ * with the full precision values computed by the view. Nothing is boxed nor allocated.
+ */
+public interface OnPreciseMoveListener
+{
+    /**
+     * Called when a JoystickView's button has been moved
+     *
+     * @param x         position on the x axis normalized in [-1, 1]
+     * @param y         position on the y axis normalized in [-1, 1], positive upward
+     * @param angle     current angle in degrees [0, 360)
+     * @param strength  current strength in percentage [0, 100]
+     * @param eventTime time of the last MotionEvent in the {@link android.os.SystemClock#uptimeMillis()} base
+     */
+    void onPreciseMove(float x, float y, float angle, float strength, long eventTime);
+}
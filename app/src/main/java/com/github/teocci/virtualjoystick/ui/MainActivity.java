@@ -2,15 +2,12 @@ package com.github.teocci.virtualjoystick.ui;
 
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
-import android.util.Log;
 import android.widget.TextView;
 
 import com.github.teocci.virtualjoystick.R;
-import com.github.teocci.virtualjoystick.interfaces.OnMoveListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
 import com.github.teocci.virtualjoystick.view.JoystickView;
 
-import java.io.IOException;
-
 /**
  * Created by teocci.
  *
@@ -24,55 +21,90 @@ public class MainActivity extends AppCompatActivity
     private final int MAX_RANGE_VALUE = 100; // this represent the maximum value from the center
     private static final int LOOP_INTERVAL = 200; // in milliseconds
 
+    /**
+     * Maximum length of a formatted value: sign, 10 digits and unit
+     */
+    private static final int MAX_TEXT_LENGTH = 12;
+
+    private TextView angleTextView;
+    private TextView strengthTextView;
+    private TextView xTextView;
+    private TextView yTextView;
+
+    // A TextView keeps the char[] it displays, so every TextView has its own buffer
+    private final char[] angleText = new char[MAX_TEXT_LENGTH];
+    private final char[] strengthText = new char[MAX_TEXT_LENGTH];
+    private final char[] xText = new char[MAX_TEXT_LENGTH];
+    private final char[] yText = new char[MAX_TEXT_LENGTH];
+
     @Override
     protected void onCreate(Bundle savedInstanceState)
     {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        final TextView angleTextView = (TextView) findViewById(R.id.angle_value);
-        final TextView strengthTextView = (TextView) findViewById(R.id.strength_value);
-        final TextView xTextView = (TextView) findViewById(R.id.x_value);
-        final TextView yTextView = (TextView) findViewById(R.id.y_value);
+        angleTextView = (TextView) findViewById(R.id.angle_value);
+        strengthTextView = (TextView) findViewById(R.id.strength_value);
+        xTextView = (TextView) findViewById(R.id.x_value);
+        yTextView = (TextView) findViewById(R.id.y_value);
 
         JoystickView joystick = (JoystickView) findViewById(R.id.joystickView);
-        joystick.setOnMoveListener(new OnMoveListener()
+        joystick.setOnPreciseMoveListener(new OnPreciseMoveListener()
         {
             @Override
-            public void onMove(int angle, int strength)
+            public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
             {
-                // Do whatever you want
-                Long rawX = Math.round(Math.cos(Math.toRadians(angle)) * strength * MAX_RANGE_VALUE / 100);
-                Long rawY = Math.round(Math.sin(Math.toRadians(angle)) * strength * MAX_RANGE_VALUE / 100);
-                final int x = CENTER_VALUE + rawX.intValue();
-                final int y = CENTER_VALUE + rawY.intValue();
+                // Do whatever you want, x and y are already normalized
+                int rawX = Math.round(x * MAX_RANGE_VALUE);
+                int rawY = Math.round(y * MAX_RANGE_VALUE);
 
-                updateTextViews(angle, strength, x, y);
+                updateTextViews((int) angle, (int) strength, CENTER_VALUE + rawX, CENTER_VALUE + rawY);
             }
         }, LOOP_INTERVAL);
     }
 
-    public void updateTextViews(final int angle, final int strength, final int x, final int y)
+    /**
+     * Show the values. The listener already runs on the main thread, and the values are formatted
+     * into the reused char buffers, so nothing is allocated per callback.
+     */
+    public void updateTextViews(int angle, int strength, int x, int y)
     {
-        final TextView angleTextView = (TextView) findViewById(R.id.angle_value);
-        final TextView strengthTextView = (TextView) findViewById(R.id.strength_value);
-        final TextView xTextView = (TextView) findViewById(R.id.x_value);
-        final TextView yTextView = (TextView) findViewById(R.id.y_value);
+        angleTextView.setText(angleText, 0, format(angleText, angle, '°'));
+        strengthTextView.setText(strengthText, 0, format(strengthText, strength, '%'));
+        xTextView.setText(xText, 0, format(xText, x, '\0'));
+        yTextView.setText(yText, 0, format(yText, y, '\0'));
+    }
 
-        runOnUiThread(new Runnable()
-        {
-            @Override
-            public void run()
-            {
-                try {
-                    angleTextView.setText(angle + "°");
-                    strengthTextView.setText(strength + "%");
-                    xTextView.setText(x + "");
-                    yTextView.setText(y + "");
-                } catch (Throwable e) {
-                    e.printStackTrace();
-                }
-            }
-        });
+    /**
+     * Write the decimal digits of a value and its unit at the beginning of a buffer.
+     *
+     * @param buffer the buffer to write to, of MAX_TEXT_LENGTH chars
+     * @param value  the value to write
+     * @param unit   the char written after the digits, '\0' for none
+     * @return the number of chars written
+     */
+    private static int format(char[] buffer, int value, char unit)
+    {
+        int length = 0;
+        long v = value;
+        if (v < 0) {
+            buffer[length++] = '-';
+            v = -v;
+        }
+
+        // Writes the digits backward from the end of the buffer, then moves them in place
+        int end = buffer.length;
+        int digit = end;
+        do {
+            buffer[--digit] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        System.arraycopy(buffer, digit, buffer, length, end - digit);
+        length += end - digit;
+
+        if (unit != '\0') {
+            buffer[length++] = unit;
+        }
+        return length;
     }
 }
@@ -0,0 +1,125 @@
+package com.github.teocci.virtualjoystick.view;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Process-wide cache of the scaled button bitmaps, shared by all the JoystickViews.
+ * The bitmaps are keyed by source and size, so joysticks using the same JV_buttonImage at the
+ * same size draw the very same pixels. The source bitmaps are never modified nor replaced,
+ * every scaling starts from the original image.
+ *
+ * The least recently used bitmaps are evicted once the memory budget is reached. An evicted
+ * bitmap is not recycled since a view may still draw it, it is left to the garbage collector.
+ *
+ * This class is not thread-safe, it must only be used from the main thread.
+ */
+public class ButtonBitmapCache
+{
+    /**
+     * Default memory budget, as a fraction of the maximum heap
+     */
+    private static final int DEFAULT_HEAP_FRACTION = 32;
+
+    private static ButtonBitmapCache instance;
+
+    private LruCache<String, Bitmap> cache;
+
+    private ButtonBitmapCache(int maxBytes)
+    {
+        cache = createCache(maxBytes);
+    }
+
+    /**
+     * Return the cache shared by all the joysticks of this process.
+     *
+     * @return the shared ButtonBitmapCache
+     */
+    public static ButtonBitmapCache getInstance()
+    {
+        if (instance == null) {
+            instance = new ButtonBitmapCache((int) (Runtime.getRuntime().maxMemory() / DEFAULT_HEAP_FRACTION));
+        }
+        return instance;
+    }
+
+    /**
+     * Return the source bitmap scaled to a square of the given size, from the cache if possible.
+     *
+     * @param source the original bitmap, it is not modified
+     * @param size   width and height of the scaled bitmap in pixels
+     * @return the scaled bitmap, shared with any other view asking for the same source and size
+     */
+    public Bitmap get(Bitmap source, int size)
+    {
+        if (source == null || size <= 0) return null;
+        if (source.getWidth() == size && source.getHeight() == size) return source;
+
+        String key = keyOf(source, size);
+        Bitmap scaled = cache.get(key);
+        if (scaled == null || scaled.isRecycled()) {
+            // Filtered, so the button keeps its quality when scaled down
+            scaled = Bitmap.createScaledBitmap(source, size, size, true);
+            cache.put(key, scaled);
+        }
+
+        return scaled;
+    }
+
+    /**
+     * Set the memory budget of the cache. The cached bitmaps are dropped.
+     *
+     * @param maxBytes maximum number of bytes of all the cached bitmaps
+     */
+    public void setMaxSize(int maxBytes)
+    {
+        cache.evictAll();
+        cache = createCache(maxBytes);
+    }
+
+    /**
+     * @return the memory budget of the cache in bytes
+     */
+    public int maxSize()
+    {
+        return cache.maxSize();
+    }
+
+    /**
+     * @return the number of bytes of all the cached bitmaps
+     */
+    public int size()
+    {
+        return cache.size();
+    }
+
+    /**
+     * Drop all the cached bitmaps, e.g. when the system is low on memory.
+     */
+    public void clear()
+    {
+        cache.evictAll();
+    }
+
+    private static String keyOf(Bitmap source, int size)
+    {
+        // The generation id changes whenever the pixels change
+        return System.identityHashCode(source) + ":" + source.getGenerationId() + ":" + size;
+    }
+
+    private static LruCache<String, Bitmap> createCache(int maxBytes)
+    {
+        return new LruCache<String, Bitmap>(Math.max(1, maxBytes))
+        {
+            @Override
+            protected int sizeOf(String key, Bitmap value)
+            {
+                return value.getByteCount();
+            }
+        };
+    }
+}
@@ -0,0 +1,772 @@
+package com.github.teocci.virtualjoystick.view;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.TextureView;
+
+import com.github.teocci.virtualjoystick.R;
+import com.github.teocci.virtualjoystick.dispatch.DispatchScheduler;
+import com.github.teocci.virtualjoystick.dispatch.MoveListenerAdapter;
+import com.github.teocci.virtualjoystick.engine.JoystickController;
+import com.github.teocci.virtualjoystick.engine.JoystickState;
+import com.github.teocci.virtualjoystick.interfaces.OnDispatchListener;
+import com.github.teocci.virtualjoystick.interfaces.OnMoveListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Joystick drawn on a TextureView by its own render thread, so a busy main thread (a slow layout
+ * pass, a long listener) does not freeze the button. It takes the same attributes as
+ * JoystickView and handles the touch and the dispatch the same way, on the main thread, through
+ * a JoystickController.
+ *
+ * The render thread never touches the state: it draws the button from the position published
+ * lock-free by JoystickState.getButtonPosition(), the same position JoystickView draws. A frame
+ * is requested whenever the button may have moved and drawn on the next Choreographer frame of
+ * the render thread (a Handler at about 60 Hz before Jelly Bean), so several samples between two
+ * frames cost one drawing and nothing is drawn while the button is still.
+ *
+ * Each surface gets its own render thread, with its own Handler, frame pacer and static layer,
+ * so the thread of a destroyed surface, still quitting, never shares them with the thread of the
+ * next one. The render thread does not call the View getters either, the surface size is
+ * captured on the main thread.
+ */
+public class JoystickTextureView extends TextureView implements TextureView.SurfaceTextureListener, OnDispatchListener
+{
+    /**
+     * Default refresh rate as a time in milliseconds to send move values through callback
+     */
+    private static final int DEFAULT_LOOP_INTERVAL = 50; // in milliseconds
+
+    /**
+     * Frame interval of the render thread when Choreographer is not available
+     */
+    private static final int FALLBACK_FRAME_INTERVAL = 16; // in milliseconds
+
+    // Same defaults as JoystickView
+    private static final int DEFAULT_COLOR_BUTTON = Color.BLACK;
+    private static final int DEFAULT_COLOR_BORDER = Color.TRANSPARENT;
+    private static final int DEFAULT_BACKGROUND_COLOR = Color.TRANSPARENT;
+    private static final int DEFAULT_SIZE = 200;
+    private static final double RATIO_SIZE_BUTTON = 0.25;
+    private static final double RATIO_SIZE_BORDER = 0.75;
+    private static final int DEFAULT_WIDTH_BORDER = 3;
+    private static final boolean DEFAULT_FIXED_CENTER = true;
+
+    /**
+     * Never returned by JoystickState.getButtonPosition(), the offsets are far smaller
+     */
+    private static final long NO_POSITION = Long.MIN_VALUE;
+
+    /**
+     * Guards everything the render thread draws with: the paints, the button image, the
+     * geometry and the surface availability
+     */
+    private final Object renderLock = new Object();
+
+    // Drawing, guarded by renderLock
+    private final Paint paintCircleButton;
+    private final Paint paintCircleBorder;
+    private final Paint paintBackground;
+    private Paint paintBitmapButton;
+    private Bitmap buttonSource;
+    private Bitmap buttonBitmap;
+    private int fixedCenterX;
+    private int fixedCenterY;
+    private int buttonRadius;
+    private int borderRadius;
+    private boolean surfaceAvailable;
+    private int surfaceWidth;
+    private int surfaceHeight;
+
+    /**
+     * The background and the border must be rendered again into the static layer
+     */
+    private volatile boolean staticLayerDirty = true;
+
+    /**
+     * Button position of the last frame drawn, to skip the frames where the button did not
+     * move, guarded by renderLock. NO_POSITION forces the next frame.
+     */
+    private long lastDrawnPosition = NO_POSITION;
+
+    // Draw time measurement, in nanoseconds
+    private volatile long lastDrawTime;
+    private volatile long frameCount;
+
+    /**
+     * Render thread of the current surface, null while no surface is available
+     */
+    private volatile Renderer renderer;
+
+    /**
+     * Input and dispatch path, turns the touch samples into the state sent to the listeners
+     */
+    private final JoystickController controller = new JoystickController();
+    private final JoystickState state = controller.getState();
+
+    private long loopInterval = DEFAULT_LOOP_INTERVAL;
+
+    /**
+     * Interval the view is registered with, which differs from loopInterval when it is adaptive
+     */
+    private long dispatchInterval;
+
+    /**
+     * Shared scheduler used to invoke the OnMove callback every loopInterval
+     */
+    private final DispatchScheduler dispatchScheduler = DispatchScheduler.getInstance();
+
+    /**
+     * Simple constructor to use when creating a JoystickTextureView from code.
+     *
+     * @param context The Context the view is running in, through which it can
+     *                access the current theme, resources, etc.
+     */
+    public JoystickTextureView(Context context)
+    {
+        this(context, null);
+    }
+
+    /**
+     * Constructor that is called when inflating a JoystickTextureView from XML.
+     *
+     * @param context The Context the view is running in, through which it can
+     *                access the current theme, resources, etc.
+     * @param attrs   The attributes of the XML tag that is inflating the view.
+     */
+    public JoystickTextureView(Context context, AttributeSet attrs)
+    {
+        super(context, attrs);
+
+        TypedArray styledAttributes = context.getTheme().obtainStyledAttributes(
+                attrs,
+                R.styleable.JoystickTextureView,
+                0, 0
+        );
+
+        int buttonColor;
+        int borderColor;
+        int backgroundColor;
+        int borderWidth;
+        Drawable buttonDrawable;
+        try {
+            buttonColor = styledAttributes.getColor(R.styleable.JoystickTextureView_JV_buttonColor, DEFAULT_COLOR_BUTTON);
+            borderColor = styledAttributes.getColor(R.styleable.JoystickTextureView_JV_borderColor, DEFAULT_COLOR_BORDER);
+            backgroundColor = styledAttributes.getColor(R.styleable.JoystickTextureView_JV_backgroundColor, DEFAULT_BACKGROUND_COLOR);
+            borderWidth = styledAttributes.getDimensionPixelSize(R.styleable.JoystickTextureView_JV_borderWidth, DEFAULT_WIDTH_BORDER);
+            controller.setFixedCenter(styledAttributes.getBoolean(R.styleable.JoystickTextureView_JV_fixedCenter, DEFAULT_FIXED_CENTER));
+            buttonDrawable = styledAttributes.getDrawable(R.styleable.JoystickTextureView_JV_buttonImage);
+        } finally {
+            styledAttributes.recycle();
+        }
+
+        paintCircleButton = new Paint();
+        paintCircleButton.setAntiAlias(true);
+        paintCircleButton.setColor(buttonColor);
+        paintCircleButton.setStyle(Paint.Style.FILL);
+
+        if (buttonDrawable instanceof BitmapDrawable) {
+            buttonSource = buttonBitmap = ((BitmapDrawable) buttonDrawable).getBitmap();
+            paintBitmapButton = new Paint(Paint.FILTER_BITMAP_FLAG);
+        }
+
+        paintCircleBorder = new Paint();
+        paintCircleBorder.setAntiAlias(true);
+        paintCircleBorder.setColor(borderColor);
+        paintCircleBorder.setStyle(Paint.Style.STROKE);
+        paintCircleBorder.setStrokeWidth(borderWidth);
+
+        paintBackground = new Paint();
+        paintBackground.setAntiAlias(true);
+        paintBackground.setColor(backgroundColor);
+        paintBackground.setStyle(Paint.Style.FILL);
+
+        // The background and the border have no opaque corners
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec)
+    {
+        int d = Math.min(measure(widthMeasureSpec), measure(heightMeasureSpec));
+        setMeasuredDimension(d, d);
+    }
+
+    private int measure(int measureSpec)
+    {
+        if (MeasureSpec.getMode(measureSpec) == MeasureSpec.UNSPECIFIED) {
+            return DEFAULT_SIZE;
+        } else {
+            return MeasureSpec.getSize(measureSpec);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldW, int oldH)
+    {
+        super.onSizeChanged(w, h, oldW, oldH);
+
+        int d = Math.min(w, h);
+        synchronized (renderLock) {
+            fixedCenterX = fixedCenterY = w / 2;
+            buttonRadius = (int) (d / 2 * RATIO_SIZE_BUTTON);
+            borderRadius = (int) (d / 2 * RATIO_SIZE_BORDER);
+
+            if (buttonSource != null) {
+                buttonBitmap = ButtonBitmapCache.getInstance().get(buttonSource, buttonRadius * 2);
+            }
+        }
+
+        state.setCenter(fixedCenterX, fixedCenterY);
+        state.setBorderRadius(borderRadius);
+        state.reset(SystemClock.uptimeMillis());
+
+        invalidateStaticLayer();
+    }
+
+    @Override
+    protected void onDetachedFromWindow()
+    {
+        // The scheduler is shared by the whole process, do not keep a reference to a dead view
+        stopDispatch(SystemClock.uptimeMillis());
+
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility)
+    {
+        super.onWindowVisibilityChanged(visibility);
+
+        if (visibility != VISIBLE) {
+            stopDispatch(SystemClock.uptimeMillis());
+        }
+    }
+
+    /**
+     * Stop the dispatch of a gesture in progress and release the button, the rest position is
+     * sent through callback. Does nothing if the button is not pressed.
+     *
+     * @param eventTime time of the release in milliseconds
+     */
+    private void stopDispatch(long eventTime)
+    {
+        dispatchScheduler.unregister(this);
+
+        if (controller.isPressed()) {
+            controller.onCancel(eventTime);
+            requestRender();
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event)
+    {
+        int x = (int) event.getX();
+        int y = (int) event.getY();
+        long eventTime = event.getEventTime();
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                dispatchInterval = controller.getDispatchInterval(loopInterval);
+                dispatchScheduler.register(this, dispatchInterval);
+
+                controller.onDown(x, y, eventTime);
+                break;
+
+            case MotionEvent.ACTION_MOVE:
+                // Walks the intermediate samples batched in the MotionEvent, oldest first
+                int historySize = event.getHistorySize();
+                for (int i = 0; i < historySize; i++) {
+                    controller.onMove(
+                            (int) event.getHistoricalX(i),
+                            (int) event.getHistoricalY(i),
+                            event.getHistoricalEventTime(i)
+                    );
+                }
+                controller.onMove(x, y, eventTime);
+                break;
+
+            case MotionEvent.ACTION_UP:
+                dispatchScheduler.unregister(this);
+
+                controller.onUp(x, y, eventTime);
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                // The coordinates of a cancel are meaningless, the button is released where it is
+                stopDispatch(eventTime);
+                break;
+        }
+
+        requestRender();
+        return true;
+    }
+
+    @Override // OnDispatchListener
+    public void onDispatch(long uptimeMillis)
+    {
+        controller.dispatch(uptimeMillis);
+
+        // Follows the adaptive rate
+        long interval = controller.getDispatchInterval(loopInterval);
+        if (interval != dispatchInterval && dispatchScheduler.isRegistered(this)) {
+            dispatchInterval = interval;
+            dispatchScheduler.register(this, interval);
+        }
+
+        // A stale prediction moves the button back to the finger
+        requestRender();
+    }
+
+    @Override // SurfaceTextureListener
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height)
+    {
+        Renderer r = new Renderer();
+        synchronized (renderLock) {
+            surfaceAvailable = true;
+            surfaceWidth = width;
+            surfaceHeight = height;
+            lastDrawnPosition = NO_POSITION;
+        }
+        renderer = r;
+        invalidateStaticLayer();
+    }
+
+    @Override // SurfaceTextureListener
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height)
+    {
+        synchronized (renderLock) {
+            surfaceWidth = width;
+            surfaceHeight = height;
+        }
+        invalidateStaticLayer();
+    }
+
+    @Override // SurfaceTextureListener
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface)
+    {
+        // Waits for a frame being drawn, the surface is released when this returns
+        synchronized (renderLock) {
+            surfaceAvailable = false;
+        }
+
+        Renderer r = renderer;
+        renderer = null;
+        if (r != null) {
+            r.quit();
+        }
+        return true;
+    }
+
+    @Override // SurfaceTextureListener
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {}
+
+    /**
+     * Draw a frame on the next display frame of the render thread. Several requests before that
+     * frame are coalesced. Can be called from any thread.
+     */
+    public void requestRender()
+    {
+        Renderer r = renderer;
+        if (r != null) {
+            r.requestFrame();
+        }
+    }
+
+    /**
+     * Render the static layer again on the next frame.
+     */
+    private void invalidateStaticLayer()
+    {
+        staticLayerDirty = true;
+        requestRender();
+    }
+
+    /**
+     * Set an image to the button with a drawable
+     *
+     * @param d drawable to pick the image
+     */
+    public void setButtonDrawable(Drawable d)
+    {
+        if (!(d instanceof BitmapDrawable)) return;
+
+        synchronized (renderLock) {
+            buttonSource = buttonBitmap = ((BitmapDrawable) d).getBitmap();
+            if (buttonRadius != 0) {
+                buttonBitmap = ButtonBitmapCache.getInstance().get(buttonSource, buttonRadius * 2);
+            }
+            if (paintBitmapButton == null) {
+                paintBitmapButton = new Paint(Paint.FILTER_BITMAP_FLAG);
+            }
+            lastDrawnPosition = NO_POSITION;
+        }
+        requestRender();
+    }
+
+    /**
+     * Set the button color for this view.
+     *
+     * @param color the color of the button
+     */
+    public void setButtonColor(int color)
+    {
+        synchronized (renderLock) {
+            paintCircleButton.setColor(color);
+            lastDrawnPosition = NO_POSITION;
+        }
+        requestRender();
+    }
+
+    /**
+     * Set the border color for this view.
+     *
+     * @param color the color of the border
+     */
+    public void setBorderColor(int color)
+    {
+        synchronized (renderLock) {
+            paintCircleBorder.setColor(color);
+        }
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Set the background color for this view. A TextureView has no background of its own,
+     * the color fills the joystick area like in JoystickView.
+     *
+     * @param color the color of the background
+     */
+    @Override
+    public void setBackgroundColor(int color)
+    {
+        synchronized (renderLock) {
+            paintBackground.setColor(color);
+        }
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Set the border width for this view.
+     *
+     * @param width the width of the border
+     */
+    public void setBorderWidth(int width)
+    {
+        synchronized (renderLock) {
+            paintCircleBorder.setStrokeWidth(width);
+        }
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Set the joystick center's behavior (fixed or auto-defined)
+     *
+     * @param fixedCenter True for fixed center, False for auto-defined center based on touch down
+     */
+    public void setFixedCenter(boolean fixedCenter)
+    {
+        if (fixedCenter) {
+            state.setCenter(fixedCenterX, fixedCenterY);
+            state.reset(SystemClock.uptimeMillis());
+        }
+        controller.setFixedCenter(fixedCenter);
+        requestRender();
+    }
+
+    /**
+     * Register a callback to be invoked when the button is moved
+     *
+     * @param l The callback that will run
+     */
+    public void setOnMoveListener(OnMoveListener l)
+    {
+        setOnMoveListener(l, DEFAULT_LOOP_INTERVAL);
+    }
+
+    /**
+     * Register a callback to be invoked when the button is moved
+     *
+     * @param l            The callback that will run
+     * @param loopInterval Refresh rate to be invoked in milliseconds
+     */
+    public void setOnMoveListener(OnMoveListener l, int loopInterval)
+    {
+        setOnPreciseMoveListener(l != null ? new MoveListenerAdapter(l) : null, loopInterval);
+    }
+
+    /**
+     * Register a callback to be invoked with the full precision values when the button is moved
+     *
+     * @param l            The callback that will run
+     * @param loopInterval Refresh rate to be invoked in milliseconds
+     */
+    public void setOnPreciseMoveListener(OnPreciseMoveListener l, int loopInterval)
+    {
+        controller.setOnPreciseMoveListener(l);
+        this.loopInterval = loopInterval;
+        controller.getChangeGate().setTickInterval(controller.getDispatchInterval(loopInterval));
+
+        // Apply the new rate right away if a gesture is in progress
+        if (dispatchScheduler.isRegistered(this)) {
+            dispatchInterval = controller.getDispatchInterval(loopInterval);
+            dispatchScheduler.register(this, dispatchInterval);
+        }
+    }
+
+    /**
+     * @return the input and dispatch path of this view, to set up the input pipeline, the
+     * predictor, the dispatch mode and the other options of JoystickView
+     */
+    public JoystickController getController()
+    {
+        return controller;
+    }
+
+    /**
+     * @return the latest move values packed in a long, see JoystickSnapshot
+     */
+    public long getSnapshot()
+    {
+        return state.getSnapshot();
+    }
+
+    /**
+     * @return the duration of the last frame drawn by the render thread in nanoseconds
+     */
+    public long getLastDrawTime()
+    {
+        return lastDrawTime;
+    }
+
+    /**
+     * @return the number of frames drawn by the render thread, which does not grow while the
+     * button is still
+     */
+    public long getFrameCount()
+    {
+        return frameCount;
+    }
+
+    /**
+     * Render thread of one surface. It draws from the latest button position, the geometry and
+     * the paints are read under renderLock.
+     */
+    private class Renderer
+    {
+        private final HandlerThread thread;
+        private final Handler handler;
+        private final AtomicBoolean frameRequested = new AtomicBoolean();
+        private final Runnable requestFrameRunnable;
+        private final Runnable frameRunnable;
+
+        // Owned by the render thread
+        private FramePacer framePacer;
+
+        /**
+         * Background and border rendered once into a bitmap, owned by the render thread
+         */
+        private Bitmap staticLayer;
+        private final Canvas staticCanvas = new Canvas();
+
+        Renderer()
+        {
+            thread = new HandlerThread("JoystickRender", Process.THREAD_PRIORITY_DISPLAY);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+
+            requestFrameRunnable = new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    scheduleFrame();
+                }
+            };
+            frameRunnable = new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    doFrame();
+                }
+            };
+        }
+
+        void requestFrame()
+        {
+            if (frameRequested.compareAndSet(false, true)) {
+                handler.post(requestFrameRunnable);
+            }
+        }
+
+        /**
+         * Stop the thread after the frame being drawn, can be called from any thread.
+         */
+        void quit()
+        {
+            handler.post(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    if (framePacer != null) {
+                        framePacer.cancel();
+                        framePacer = null;
+                    }
+                    releaseStaticLayer();
+                    thread.quit();
+                }
+            });
+        }
+
+        /**
+         * Post the frame callback, on the render thread.
+         */
+        private void scheduleFrame()
+        {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                // The Choreographer of this thread, paced by the display
+                if (framePacer == null) {
+                    framePacer = new FramePacer(frameRunnable);
+                }
+                framePacer.post();
+            } else {
+                handler.postDelayed(frameRunnable, FALLBACK_FRAME_INTERVAL);
+            }
+        }
+
+        /**
+         * Draw a frame from the latest snapshot, on the render thread.
+         */
+        private void doFrame()
+        {
+            frameRequested.set(false);
+
+            long position = state.getButtonPosition();
+
+            synchronized (renderLock) {
+                // The surface may already belong to the thread of the next one
+                if (!surfaceAvailable || renderer != this) return;
+                if (!staticLayerDirty && staticLayer != null && position == lastDrawnPosition) return;
+
+                Canvas canvas = lockCanvas();
+                if (canvas == null) return;
+
+                long start = System.nanoTime();
+                try {
+                    if (staticLayerDirty || staticLayer == null) {
+                        renderStaticLayer(surfaceWidth, surfaceHeight);
+                    }
+                    canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                    canvas.drawBitmap(staticLayer, 0, 0, null);
+
+                    int x = fixedCenterX + JoystickState.getButtonOffsetX(position);
+                    int y = fixedCenterY + JoystickState.getButtonOffsetY(position);
+                    if (buttonBitmap != null) {
+                        canvas.drawBitmap(buttonBitmap, x - buttonRadius, y - buttonRadius, paintBitmapButton);
+                    } else {
+                        canvas.drawCircle(x, y, buttonRadius, paintCircleButton);
+                    }
+                } finally {
+                    unlockCanvasAndPost(canvas);
+                }
+
+                lastDrawnPosition = position;
+                lastDrawTime = System.nanoTime() - start;
+                frameCount++;
+            }
+        }
+
+        /**
+         * Render the background and the border into the static layer, on the render thread.
+         *
+         * @param width  width of the surface, captured on the main thread
+         * @param height height of the surface, captured on the main thread
+         */
+        private void renderStaticLayer(int width, int height)
+        {
+            int w = Math.max(1, width);
+            int h = Math.max(1, height);
+
+            if (staticLayer == null || staticLayer.getWidth() != w || staticLayer.getHeight() != h) {
+                releaseStaticLayer();
+                staticLayer = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            } else {
+                staticLayer.eraseColor(Color.TRANSPARENT);
+            }
+
+            staticCanvas.setBitmap(staticLayer);
+            staticCanvas.drawCircle(fixedCenterX, fixedCenterY, borderRadius, paintBackground);
+            staticCanvas.drawCircle(fixedCenterX, fixedCenterY, borderRadius, paintCircleBorder);
+            staticLayerDirty = false;
+        }
+
+        private void releaseStaticLayer()
+        {
+            if (staticLayer != null) {
+                staticCanvas.setBitmap(null);
+                staticLayer.recycle();
+                staticLayer = null;
+            }
+        }
+    }
+
+    /**
+     * Choreographer bridge of a render thread, kept in its own class so that older platforms
+     * never load it.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class FramePacer implements Choreographer.FrameCallback
+    {
+        // Created on the render thread, so the frames are delivered there
+        private final Choreographer choreographer = Choreographer.getInstance();
+        private final Runnable frameRunnable;
+
+        FramePacer(Runnable frameRunnable)
+        {
+            this.frameRunnable = frameRunnable;
+        }
+
+        void post()
+        {
+            choreographer.postFrameCallback(this);
+        }
+
+        void cancel()
+        {
+            choreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos)
+        {
+            frameRunnable.run();
+        }
+    }
+}
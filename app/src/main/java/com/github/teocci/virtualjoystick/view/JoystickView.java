@@ -6,17 +6,40 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.view.InputDevice;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
 
 import com.github.teocci.virtualjoystick.R;
+import com.github.teocci.virtualjoystick.dispatch.DispatchScheduler;
+import com.github.teocci.virtualjoystick.dispatch.JoystickCoordinator;
+import com.github.teocci.virtualjoystick.dispatch.ListenerDelivery;
+import com.github.teocci.virtualjoystick.dispatch.MoveListenerAdapter;
+import com.github.teocci.virtualjoystick.engine.AdaptiveRateController;
+import com.github.teocci.virtualjoystick.engine.AxisInputFusion;
+import com.github.teocci.virtualjoystick.engine.GestureRecorder;
+import com.github.teocci.virtualjoystick.engine.InputPipeline;
+import com.github.teocci.virtualjoystick.engine.JoystickController;
+import com.github.teocci.virtualjoystick.engine.JoystickState;
+import com.github.teocci.virtualjoystick.engine.LatencyHistogram;
+import com.github.teocci.virtualjoystick.engine.LatencyMonitor;
+import com.github.teocci.virtualjoystick.engine.MotionPredictor;
+import com.github.teocci.virtualjoystick.engine.SampleBatch;
+import com.github.teocci.virtualjoystick.engine.TelemetryLog;
+import com.github.teocci.virtualjoystick.interfaces.OnDispatchListener;
+import com.github.teocci.virtualjoystick.interfaces.OnMoveBatchListener;
 import com.github.teocci.virtualjoystick.interfaces.OnMoveListener;
 import com.github.teocci.virtualjoystick.interfaces.OnMultipleLongPressListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import java.util.concurrent.Executor;
 
 /**
  * Created by teocci.
@@ -24,8 +47,19 @@ import com.github.teocci.virtualjoystick.interfaces.OnMultipleLongPressListener;
  * @author teocci@yandex.com on 2017/Apr/17
  */
 
-public class JoystickView extends View implements Runnable
+public class JoystickView extends View implements OnDispatchListener
 {
+    /**
+     * Dispatch mode sending the move values through callback every loop interval
+     */
+    public static final int DISPATCH_MODE_FIXED_INTERVAL = JoystickController.DISPATCH_MODE_FIXED_INTERVAL;
+
+    /**
+     * Dispatch mode sending the move values through callback only when they changed more than
+     * the deadband. The loop interval is then the sampling period and caps the dispatch rate.
+     */
+    public static final int DISPATCH_MODE_ON_CHANGE = JoystickController.DISPATCH_MODE_ON_CHANGE;
+
     /**
      * Default refresh rate as a time in milliseconds to send move values through callback
      */
@@ -82,33 +116,90 @@ public class JoystickView extends View implements Runnable
     private Paint paintBackground;
 
     private Paint paintBitmapButton;
+
+    /**
+     * Original button image, and its copy scaled to the button size shared through ButtonBitmapCache
+     */
+    private Bitmap buttonSource;
     private Bitmap buttonBitmap;
 
-    // Coordinate
-    private int posX = 0;
-    private int posY = 0;
-    private int centerX = 0;
-    private int centerY = 0;
+    /**
+     * Background and border rendered once into a bitmap, so a frame only draws the button
+     */
+    private Bitmap staticLayer;
+    private final Canvas staticCanvas = new Canvas();
+    private boolean staticLayerDirty = true;
+    private boolean staticLayerCached = true;
 
-    private int fixedCenterX = 0;
-    private int fixedCenterY = 0;
+    /**
+     * Bounds of the button on the last invalidation, used to only redraw what moved
+     */
+    private final Rect buttonBounds = new Rect();
+    private final Rect dirtyBounds = new Rect();
+
+    // Draw time measurement, in nanoseconds
+    private long lastDrawTime;
+    private long totalDrawTime;
+    private long drawCount;
 
     /**
-     * Used to adapt behavior whether it is auto-defined center (false) or fixed center (true)
+     * Latency instrumentation, null unless enabled
      */
-    private boolean fixedCenter;
+    private LatencyMonitor latencyMonitor;
+
+    // Debug overlay showing the latency percentiles
+    private boolean debugOverlay;
+    private Paint paintDebugText;
+    private final StringBuilder debugText = new StringBuilder();
+
+    /**
+     * Input and dispatch path, turns the touch samples into the state sent to the listeners
+     */
+    private final JoystickController controller = new JoystickController();
+
+    /**
+     * Arbitrates between the touch and the gamepad axes, touch wins
+     */
+    private final AxisInputFusion inputFusion = new AxisInputFusion(controller);
+
+    // Gamepad axes read by onGenericMotionEvent, and the device their flat zones come from
+    private int gamepadAxisX = MotionEvent.AXIS_X;
+    private int gamepadAxisY = MotionEvent.AXIS_Y;
+    private int gamepadDeviceId = -1;
+
+    /**
+     * Button position and the values derived from it, computed once per sample
+     */
+    private final JoystickState state = controller.getState();
+
+    private int fixedCenterX = 0;
+    private int fixedCenterY = 0;
 
     // Joystick Size
     private int buttonRadius;
     private int borderRadius;
 
+    private long loopInterval = DEFAULT_LOOP_INTERVAL;
+
     /**
-     * Listener used to dispatch OnMove event
+     * Interval the view is registered with, which differs from loopInterval when it is adaptive
      */
-    private OnMoveListener callback;
+    private long dispatchInterval;
 
-    private long loopInterval = DEFAULT_LOOP_INTERVAL;
-    private Thread thread = new Thread(this);
+    /**
+     * Number of dispatch ticks received
+     */
+    private long tickCount;
+
+    /**
+     * Shared scheduler used to invoke the OnMove callback every loopInterval
+     */
+    private final DispatchScheduler dispatchScheduler = DispatchScheduler.getInstance();
+
+    /**
+     * Samples this view on a tick shared with other views, null unless coordinated
+     */
+    private JoystickCoordinator coordinator;
 
     /**
      * Listener used to dispatch MultipleLongPress event
@@ -166,7 +257,7 @@ public class JoystickView extends View implements Runnable
             borderColor = styledAttributes.getColor(R.styleable.JoystickView_JV_borderColor, DEFAULT_COLOR_BORDER);
             backgroundColor = styledAttributes.getColor(R.styleable.JoystickView_JV_backgroundColor, DEFAULT_BACKGROUND_COLOR);
             borderWidth = styledAttributes.getDimensionPixelSize(R.styleable.JoystickView_JV_borderWidth, DEFAULT_WIDTH_BORDER);
-            fixedCenter = styledAttributes.getBoolean(R.styleable.JoystickView_JV_fixedCenter, DEFAULT_FIXED_CENTER);
+            controller.setFixedCenter(styledAttributes.getBoolean(R.styleable.JoystickView_JV_fixedCenter, DEFAULT_FIXED_CENTER));
             buttonDrawable = styledAttributes.getDrawable(R.styleable.JoystickView_JV_buttonImage);
         } finally {
             styledAttributes.recycle();
@@ -180,8 +271,8 @@ public class JoystickView extends View implements Runnable
 
         if (buttonDrawable != null) {
             if (buttonDrawable instanceof BitmapDrawable) {
-                buttonBitmap = ((BitmapDrawable) buttonDrawable).getBitmap();
-                paintBitmapButton = new Paint();
+                buttonSource = buttonBitmap = ((BitmapDrawable) buttonDrawable).getBitmap();
+                paintBitmapButton = new Paint(Paint.FILTER_BITMAP_FLAG);
             }
         }
 
@@ -211,8 +302,85 @@ public class JoystickView extends View implements Runnable
     private void initPosition()
     {
         // get the center of view to position circle
-        fixedCenterX = centerX = posX = getWidth() / 2;
-        fixedCenterY = centerY = posY = getWidth() / 2;
+        fixedCenterX = fixedCenterY = getWidth() / 2;
+        state.setCenter(fixedCenterX, fixedCenterY);
+        state.reset(SystemClock.uptimeMillis());
+    }
+
+    @Override
+    protected void onDetachedFromWindow()
+    {
+        super.onDetachedFromWindow();
+
+        // The scheduler is shared by the whole process, do not keep a reference to a dead view
+        stopDispatch(SystemClock.uptimeMillis());
+
+        // Stops a dedicated listener thread, it starts again with the next value if reattached
+        OnPreciseMoveListener listener = controller.getOnPreciseMoveListener();
+        if (listener instanceof ListenerDelivery) {
+            ((ListenerDelivery) listener).release();
+        }
+
+        releaseStaticLayer();
+    }
+
+    /**
+     * Release the button when the window is hidden, e.g. when the activity is stopped, so
+     * nothing keeps waking up in the background.
+     *
+     * @param visibility the new visibility of the window
+     */
+    @Override
+    protected void onWindowVisibilityChanged(int visibility)
+    {
+        super.onWindowVisibilityChanged(visibility);
+
+        if (visibility != VISIBLE) {
+            stopDispatch(SystemClock.uptimeMillis());
+        }
+    }
+
+    /**
+     * Stop the dispatch of a gesture in progress and release the button, the rest position is
+     * sent through callback. Does nothing if the button is not pressed.
+     *
+     * @param eventTime time of the release in milliseconds
+     */
+    private void stopDispatch(long eventTime)
+    {
+        handlerMultipleLongPress.removeCallbacks(runnableMultipleLongPress);
+
+        if (controller.isPressed()) {
+            inputFusion.onCancel(eventTime);
+            invalidateButton();
+        }
+        unregisterDispatch();
+    }
+
+    /**
+     * Start the dispatch ticks, from the shared scheduler or from the coordinator.
+     */
+    private void registerDispatch()
+    {
+        if (coordinator != null) {
+            coordinator.onViewPressed(this);
+        } else {
+            dispatchInterval = controller.getDispatchInterval(loopInterval);
+            dispatchScheduler.register(this, dispatchInterval);
+        }
+    }
+
+    /**
+     * Stop the dispatch ticks. The coordinator dispatches the release of the last pressed view,
+     * so it must be called after the button is released.
+     */
+    private void unregisterDispatch()
+    {
+        if (coordinator != null) {
+            coordinator.onViewReleased(this);
+        } else {
+            dispatchScheduler.unregister(this);
+        }
     }
 
     /**
@@ -223,27 +391,163 @@ public class JoystickView extends View implements Runnable
     @Override
     protected void onDraw(Canvas canvas)
     {
-        // Draw the background
-        canvas.drawCircle(fixedCenterX, fixedCenterY, borderRadius, paintBackground);
+        long start = System.nanoTime();
 
-        // Draw the circle border
-        canvas.drawCircle(fixedCenterX, fixedCenterY, borderRadius, paintCircleBorder);
+        if (staticLayerCached) {
+            if (staticLayerDirty || staticLayer == null) {
+                renderStaticLayer();
+            }
+            canvas.drawBitmap(staticLayer, 0, 0, null);
+        } else {
+            drawStaticLayer(canvas);
+        }
 
         if (buttonBitmap != null) { // Draw the button from image
             canvas.drawBitmap(
                     buttonBitmap,
-                    posX + fixedCenterX - centerX - buttonRadius,
-                    posY + fixedCenterY - centerY - buttonRadius,
+                    state.getPosX() + fixedCenterX - state.getCenterX() - buttonRadius,
+                    state.getPosY() + fixedCenterY - state.getCenterY() - buttonRadius,
                     paintBitmapButton
             );
         } else { // Draw the button as simple circle
             canvas.drawCircle(
-                    posX + fixedCenterX - centerX,
-                    posY + fixedCenterY - centerY,
+                    state.getPosX() + fixedCenterX - state.getCenterX(),
+                    state.getPosY() + fixedCenterY - state.getCenterY(),
                     buttonRadius,
                     paintCircleButton
             );
         }
+
+        long end = System.nanoTime();
+        lastDrawTime = end - start;
+        totalDrawTime += lastDrawTime;
+        drawCount++;
+
+        if (latencyMonitor != null) {
+            latencyMonitor.recordDraw(state.getInputSequence(), state.getEventTime(), start, end);
+
+            if (debugOverlay) {
+                drawDebugOverlay(canvas);
+            }
+        }
+    }
+
+    /**
+     * Draw the p50 and p99 of every latency measurement, in milliseconds.
+     *
+     * @param canvas the canvas on which the text will be drawn
+     */
+    private void drawDebugOverlay(Canvas canvas)
+    {
+        float lineHeight = paintDebugText.getTextSize() * 1.2f;
+        float y = lineHeight;
+
+        drawDebugLine(canvas, "in>cb", latencyMonitor.getInputToCallback(), y);
+        drawDebugLine(canvas, "cb", latencyMonitor.getCallback(), y += lineHeight);
+        drawDebugLine(canvas, "in>draw", latencyMonitor.getInputToDraw(), y += lineHeight);
+        drawDebugLine(canvas, "draw", latencyMonitor.getDraw(), y + lineHeight);
+    }
+
+    private void drawDebugLine(Canvas canvas, String label, LatencyHistogram histogram, float y)
+    {
+        debugText.setLength(0);
+        debugText.append(label).append(" p50 ");
+        appendMillis(debugText, histogram.getValueAtPercentile(50));
+        debugText.append(" p99 ");
+        appendMillis(debugText, histogram.getValueAtPercentile(99));
+
+        canvas.drawText(debugText, 0, debugText.length(), 0, y, paintDebugText);
+    }
+
+    private static void appendMillis(StringBuilder builder, long nanos)
+    {
+        long hundredths = nanos / 10000;
+        builder.append(hundredths / 100).append('.');
+        if (hundredths % 100 < 10) builder.append('0');
+        builder.append(hundredths % 100);
+    }
+
+    /**
+     * Draw the background and the border, the parts that do not move with the button.
+     *
+     * @param canvas the canvas on which the shapes will be drawn
+     */
+    private void drawStaticLayer(Canvas canvas)
+    {
+        // Draw the background
+        canvas.drawCircle(fixedCenterX, fixedCenterY, borderRadius, paintBackground);
+
+        // Draw the circle border
+        canvas.drawCircle(fixedCenterX, fixedCenterY, borderRadius, paintCircleBorder);
+    }
+
+    /**
+     * Render the static layer into its bitmap, reusing it when the size did not change.
+     */
+    private void renderStaticLayer()
+    {
+        int w = Math.max(1, getWidth());
+        int h = Math.max(1, getHeight());
+
+        if (staticLayer == null || staticLayer.getWidth() != w || staticLayer.getHeight() != h) {
+            releaseStaticLayer();
+            staticLayer = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        } else {
+            staticLayer.eraseColor(Color.TRANSPARENT);
+        }
+
+        staticCanvas.setBitmap(staticLayer);
+        drawStaticLayer(staticCanvas);
+        staticLayerDirty = false;
+    }
+
+    private void releaseStaticLayer()
+    {
+        if (staticLayer != null) {
+            staticCanvas.setBitmap(null);
+            staticLayer.recycle();
+            staticLayer = null;
+        }
+    }
+
+    /**
+     * Invalidate the union of the previous and the current bounds of the button. Nothing is
+     * invalidated if the button did not move after being clamped.
+     */
+    private void invalidateButton()
+    {
+        // The overlay is refreshed with every frame
+        if (debugOverlay) {
+            invalidate();
+            return;
+        }
+
+        int x = state.getPosX() + fixedCenterX - state.getCenterX();
+        int y = state.getPosY() + fixedCenterY - state.getCenterY();
+
+        // One more pixel for the antialiasing
+        int r = buttonRadius + 1;
+        int left = x - r;
+        int top = y - r;
+
+        if (!buttonBounds.isEmpty() && buttonBounds.left == left && buttonBounds.top == top) return;
+
+        dirtyBounds.set(left, top, x + r, y + r);
+        if (!buttonBounds.isEmpty()) {
+            dirtyBounds.union(buttonBounds);
+        }
+        buttonBounds.set(left, top, x + r, y + r);
+
+        invalidate(dirtyBounds);
+    }
+
+    /**
+     * Render the static layer again before the next frame.
+     */
+    private void invalidateStaticLayer()
+    {
+        staticLayerDirty = true;
+        invalidate();
     }
 
     /**
@@ -266,9 +570,14 @@ public class JoystickView extends View implements Runnable
         int d = Math.min(w, h);
         buttonRadius = (int) (d / 2 * RATIO_SIZE_BUTTON);
         borderRadius = (int) (d / 2 * RATIO_SIZE_BORDER);
+        state.setBorderRadius(borderRadius);
+        staticLayerDirty = true;
 
-        if (buttonBitmap != null)
-            buttonBitmap = Bitmap.createScaledBitmap(buttonBitmap, buttonRadius * 2, buttonRadius * 2, false);
+        // The whole view is redrawn after a size change
+        buttonBounds.setEmpty();
+
+        if (buttonSource != null)
+            buttonBitmap = ButtonBitmapCache.getInstance().get(buttonSource, buttonRadius * 2);
     }
 
     @Override
@@ -303,40 +612,12 @@ public class JoystickView extends View implements Runnable
     public boolean onTouchEvent(MotionEvent event)
     {
         // Moves the button according to the finger coordinate
-        posX = (int) event.getX();
-        posY = (int) event.getY();
-
-        if (event.getAction() == MotionEvent.ACTION_UP) {
-            resetButtonPosition();
-
-            thread.interrupt();
+        int x = (int) event.getX();
+        int y = (int) event.getY();
+        long eventTime = event.getEventTime();
 
-            if (callback != null)
-                callback.onMove(getAngle(), getStrength());
-        }
-
-        if (event.getAction() == MotionEvent.ACTION_DOWN) {
-            if (thread != null && thread.isAlive()) {
-                thread.interrupt();
-            }
-
-            thread = new Thread(this);
-            thread.start();
-
-            if (callback != null)
-                callback.onMove(getAngle(), getStrength());
-        }
-
-        // Handles first touch and long press with multiple touch only
+        // Handles long press with multiple touch only
         switch (event.getActionMasked()) {
-            case MotionEvent.ACTION_DOWN:
-                // When the first touch occurs we update the center (if set to auto-defined center)
-                if (!fixedCenter) {
-                    centerX = posX;
-                    centerY = posY;
-                }
-                break;
-
             case MotionEvent.ACTION_POINTER_DOWN: {
                 // When the second finger touch
                 if (event.getPointerCount() == 2) {
@@ -362,41 +643,134 @@ public class JoystickView extends View implements Runnable
             }
         }
 
-        double abs = Math.sqrt((posX - centerX) * (posX - centerX)
-                + (posY - centerY) * (posY - centerY));
+        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            registerDispatch();
+
+            inputFusion.onTouchDown(x, y, eventTime);
+        } else if (event.getAction() == MotionEvent.ACTION_UP) {
+            inputFusion.onTouchUp(x, y, eventTime);
 
-        if (abs > borderRadius) {
-            posX = (int) ((posX - centerX) * borderRadius / abs + centerX);
-            posY = (int) ((posY - centerY) * borderRadius / abs + centerY);
+            unregisterDispatch();
+        } else if (event.getActionMasked() == MotionEvent.ACTION_CANCEL) {
+            // The coordinates of a cancel are meaningless, the button is released where it is
+            stopDispatch(eventTime);
+        } else {
+            // Walks the intermediate samples batched in the MotionEvent, oldest first
+            if (event.getActionMasked() == MotionEvent.ACTION_MOVE) {
+                int historySize = event.getHistorySize();
+                for (int i = 0; i < historySize; i++) {
+                    inputFusion.onTouchMove(
+                            (int) event.getHistoricalX(i),
+                            (int) event.getHistoricalY(i),
+                            event.getHistoricalEventTime(i)
+                    );
+                }
+            }
+
+            inputFusion.onTouchMove(x, y, eventTime);
         }
 
-        // Forces a new draw
-        invalidate();
+        // Forces a new draw of the button, if it moved
+        invalidateButton();
 
         return true;
     }
 
     /**
-     * Process the angle following the 360° counter-clock protractor rules.
+     * Handle the axes of a physical joystick or gamepad, see setGamepadEnabled(). They move the
+     * button like a finger would, unless a finger already holds it.
      *
-     * @return the angle of the button
+     * @param event The motion event.
+     * @return True if the event was handled, false otherwise.
      */
-    private int getAngle()
+    @Override
+    public boolean onGenericMotionEvent(MotionEvent event)
     {
-        int angle = (int) Math.toDegrees(Math.atan2(centerY - posY, posX - centerX));
-        return angle < 0 ? angle + 360 : angle; // make it as a regular counter-clock protractor
+        if ((event.getSource() & InputDevice.SOURCE_JOYSTICK) != InputDevice.SOURCE_JOYSTICK
+                || event.getActionMasked() != MotionEvent.ACTION_MOVE) {
+            return super.onGenericMotionEvent(event);
+        }
+
+        // The flat zones are looked up once per device
+        if (event.getDeviceId() != gamepadDeviceId) {
+            gamepadDeviceId = event.getDeviceId();
+            inputFusion.setFlat(getFlat(event, gamepadAxisX), getFlat(event, gamepadAxisY));
+        }
+
+        // Walks the intermediate samples batched in the MotionEvent, oldest first
+        boolean handled = false;
+        int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            handled |= inputFusion.onAxes(
+                    event.getHistoricalAxisValue(gamepadAxisX, i),
+                    event.getHistoricalAxisValue(gamepadAxisY, i),
+                    event.getHistoricalEventTime(i)
+            );
+        }
+        handled |= inputFusion.onAxes(
+                event.getAxisValue(gamepadAxisX),
+                event.getAxisValue(gamepadAxisY),
+                event.getEventTime()
+        );
+
+        if (!handled) return super.onGenericMotionEvent(event);
+
+        // The axes go through the same dispatch as the touch
+        if (controller.isPressed()) {
+            if (!isDispatching()) {
+                registerDispatch();
+            }
+        } else {
+            unregisterDispatch();
+        }
+
+        invalidateButton();
+        return true;
+    }
+
+    private static float getFlat(MotionEvent event, int axis)
+    {
+        InputDevice device = event.getDevice();
+        InputDevice.MotionRange range = device != null ? device.getMotionRange(axis, event.getSource()) : null;
+        return range != null ? range.getFlat() : 0;
     }
 
     /**
-     * Process the strength as a percentage of the distance between the center and the border.
+     * Set whether the axes of a physical joystick or gamepad move the button. This makes the
+     * view focusable, as Android sends the joystick events to the focused view.
      *
-     * @return the strength of the button
+     * @param enabled True to read the gamepad axes
      */
-    private int getStrength()
+    public void setGamepadEnabled(boolean enabled)
     {
-        return (int) (100 * Math.sqrt((posX - centerX)
-                * (posX - centerX) + (posY - centerY)
-                * (posY - centerY)) / borderRadius);
+        setFocusable(enabled);
+        gamepadDeviceId = -1;
+    }
+
+    /**
+     * Set the gamepad axes moving the button, e.g. MotionEvent.AXIS_Z and AXIS_RZ for the right
+     * stick, or AXIS_HAT_X and AXIS_HAT_Y for the directional pad.
+     *
+     * @param axisX axis of the x coordinate, MotionEvent.AXIS_X by default
+     * @param axisY axis of the y coordinate, MotionEvent.AXIS_Y by default
+     */
+    public void setGamepadAxes(int axisX, int axisY)
+    {
+        gamepadAxisX = axisX;
+        gamepadAxisY = axisY;
+        gamepadDeviceId = -1;
+    }
+
+    /**
+     * Return the last button sample packed in a long. Unlike the listeners, this can be polled
+     * from any thread at any rate, without allocation nor going through the main Looper.
+     * The values are decoded with the JoystickSnapshot getters.
+     *
+     * @return the packed sample
+     */
+    public long getSnapshot()
+    {
+        return state.getSnapshot();
     }
 
     /**
@@ -404,8 +778,7 @@ public class JoystickView extends View implements Runnable
      */
     public void resetButtonPosition()
     {
-        posX = centerX;
-        posY = centerY;
+        state.reset(SystemClock.uptimeMillis());
     }
 
     /**
@@ -417,18 +790,16 @@ public class JoystickView extends View implements Runnable
     {
         if (d != null) {
             if (d instanceof BitmapDrawable) {
-                buttonBitmap = ((BitmapDrawable) d).getBitmap();
+                buttonSource = buttonBitmap = ((BitmapDrawable) d).getBitmap();
 
                 if (buttonRadius != 0) {
-                    buttonBitmap = Bitmap.createScaledBitmap(
-                            buttonBitmap,
-                            buttonRadius * 2,
-                            buttonRadius * 2,
-                            false);
+                    buttonBitmap = ButtonBitmapCache.getInstance().get(buttonSource, buttonRadius * 2);
                 }
 
-                if (paintBitmapButton != null)
-                    paintBitmapButton = new Paint();
+                if (paintBitmapButton == null)
+                    paintBitmapButton = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+                invalidate();
             }
         }
     }
@@ -452,7 +823,7 @@ public class JoystickView extends View implements Runnable
     public void setBorderColor(int color)
     {
         paintCircleBorder.setColor(color);
-        invalidate();
+        invalidateStaticLayer();
     }
 
     /**
@@ -464,7 +835,7 @@ public class JoystickView extends View implements Runnable
     public void setBackgroundColor(int color)
     {
         paintBackground.setColor(color);
-        invalidate();
+        invalidateStaticLayer();
     }
 
     /**
@@ -475,6 +846,95 @@ public class JoystickView extends View implements Runnable
     public void setBorderWidth(int width)
     {
         paintCircleBorder.setStrokeWidth(width);
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Set whether the background and the border are rendered once into a bitmap (default)
+     * or drawn on every frame.
+     *
+     * @param cached True to cache the static layer
+     */
+    public void setStaticLayerCached(boolean cached)
+    {
+        staticLayerCached = cached;
+        if (!cached) {
+            releaseStaticLayer();
+        }
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Return the duration of the last onDraw. With hardware acceleration this is the time
+     * spent recording the drawing commands, not the time spent by the GPU.
+     *
+     * @return the duration of the last onDraw in nanoseconds
+     */
+    public long getLastDrawTime()
+    {
+        return lastDrawTime;
+    }
+
+    /**
+     * @return the average duration of onDraw in nanoseconds since the last reset
+     */
+    public long getAverageDrawTime()
+    {
+        return drawCount > 0 ? totalDrawTime / drawCount : 0;
+    }
+
+    /**
+     * Reset the draw time measurement.
+     */
+    public void resetDrawTime()
+    {
+        lastDrawTime = 0;
+        totalDrawTime = 0;
+        drawCount = 0;
+    }
+
+    /**
+     * Enable the latency instrumentation. It records the time from each MotionEvent to the
+     * listener invocation and to onDraw, the listener duration and the onDraw duration.
+     *
+     * @param enabled True to record the latencies
+     * @see LatencyMonitor
+     */
+    public void setLatencyMonitorEnabled(boolean enabled)
+    {
+        if (enabled && latencyMonitor == null) {
+            latencyMonitor = new LatencyMonitor();
+        } else if (!enabled) {
+            latencyMonitor = null;
+        }
+        controller.setLatencyMonitor(latencyMonitor);
+        invalidate();
+    }
+
+    /**
+     * @return the latency measurements, null if the instrumentation is not enabled
+     */
+    public LatencyMonitor getLatencyMonitor()
+    {
+        return latencyMonitor;
+    }
+
+    /**
+     * Show the latency percentiles over the joystick. Enables the latency instrumentation.
+     *
+     * @param debugOverlay True to show the overlay
+     */
+    public void setDebugOverlay(boolean debugOverlay)
+    {
+        this.debugOverlay = debugOverlay;
+        if (debugOverlay) {
+            if (paintDebugText == null) {
+                paintDebugText = new Paint(Paint.ANTI_ALIAS_FLAG);
+                paintDebugText.setColor(Color.RED);
+                paintDebugText.setTextSize(12 * getResources().getDisplayMetrics().density);
+            }
+            setLatencyMonitorEnabled(true);
+        }
         invalidate();
     }
 
@@ -496,8 +956,209 @@ public class JoystickView extends View implements Runnable
      */
     public void setOnMoveListener(OnMoveListener l, int loopInterval)
     {
-        callback = l;
+        setOnPreciseMoveListener(l != null ? new MoveListenerAdapter(l) : null, loopInterval);
+    }
+
+    /**
+     * Register a callback to be invoked on another thread when this JoystickView's button is moved.
+     * A dedicated thread is stopped when the view is detached from its window.
+     *
+     * @param l            The callback that will run
+     * @param loopInterval Refresh rate to be invoked in milliseconds
+     * @param target       ListenerDelivery.TARGET_UI_THREAD or ListenerDelivery.TARGET_HANDLER_THREAD
+     * @param policy       Backpressure policy, one of the ListenerDelivery POLICY constants
+     * @see ListenerDelivery
+     */
+    public void setOnMoveListener(OnMoveListener l, int loopInterval, int target, int policy)
+    {
+        setOnPreciseMoveListener(l != null
+                ? new ListenerDelivery(new MoveListenerAdapter(l), target, policy, ListenerDelivery.DEFAULT_CAPACITY)
+                : null, loopInterval);
+    }
+
+    /**
+     * Register a callback to be invoked by an executor when this JoystickView's button is moved
+     *
+     * @param l            The callback that will run
+     * @param loopInterval Refresh rate to be invoked in milliseconds
+     * @param executor     The executor running the callback
+     * @param policy       Backpressure policy, one of the ListenerDelivery POLICY constants
+     * @see ListenerDelivery
+     */
+    public void setOnMoveListener(OnMoveListener l, int loopInterval, Executor executor, int policy)
+    {
+        setOnPreciseMoveListener(l != null
+                ? new ListenerDelivery(new MoveListenerAdapter(l), executor, policy, ListenerDelivery.DEFAULT_CAPACITY)
+                : null, loopInterval);
+    }
+
+    /**
+     * Register a callback to be invoked with the full precision values when this JoystickView's
+     * button is moved
+     *
+     * @param l The callback that will run
+     */
+    public void setOnPreciseMoveListener(OnPreciseMoveListener l)
+    {
+        setOnPreciseMoveListener(l, DEFAULT_LOOP_INTERVAL);
+    }
+
+    /**
+     * Register a callback to be invoked with the full precision values when this JoystickView's
+     * button is moved. A ListenerDelivery replaced by another callback is released.
+     *
+     * @param l            The callback that will run
+     * @param loopInterval Refresh rate to be invoked in milliseconds
+     */
+    public void setOnPreciseMoveListener(OnPreciseMoveListener l, int loopInterval)
+    {
+        OnPreciseMoveListener previous = controller.getOnPreciseMoveListener();
+        if (previous instanceof ListenerDelivery && previous != l) {
+            ((ListenerDelivery) previous).release();
+        }
+
+        controller.setOnPreciseMoveListener(l);
         this.loopInterval = loopInterval;
+        controller.getChangeGate().setTickInterval(controller.getDispatchInterval(loopInterval));
+
+        // Apply the new rate right away if a gesture is in progress
+        if (dispatchScheduler.isRegistered(this)) {
+            dispatchInterval = controller.getDispatchInterval(loopInterval);
+            dispatchScheduler.register(this, dispatchInterval);
+        }
+    }
+
+    /**
+     * Register a callback to be invoked every loop interval with all the samples of the button
+     * trajectory collected since the last call, including the historical ones of each MotionEvent.
+     *
+     * @param l The callback that will run
+     */
+    public void setOnMoveBatchListener(OnMoveBatchListener l)
+    {
+        setOnMoveBatchListener(l, SampleBatch.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Register a callback to be invoked every loop interval with all the samples of the button
+     * trajectory collected since the last call, including the historical ones of each MotionEvent.
+     *
+     * @param l        The callback that will run
+     * @param capacity Maximum number of samples kept between two calls, the oldest are dropped
+     */
+    public void setOnMoveBatchListener(OnMoveBatchListener l, int capacity)
+    {
+        controller.setOnMoveBatchListener(l, capacity);
+    }
+
+    /**
+     * Set whether to compute the move values with the fast math path, which uses lookup tables
+     * and integer comparisons instead of double precision trigonometry.
+     *
+     * @param fastMath True to use the fast math path
+     * @see JoystickState#setFastMath(boolean)
+     */
+    public void setFastMath(boolean fastMath)
+    {
+        state.setFastMath(fastMath);
+    }
+
+    /**
+     * Set the processing applied to the move values before they are sent through callback:
+     * dead zones, response curve and filter. The button is still drawn at the touch position.
+     *
+     * @param pipeline the pipeline, used by this JoystickView only, null for none (default)
+     * @see InputPipeline
+     */
+    public void setInputPipeline(InputPipeline pipeline)
+    {
+        state.setInputPipeline(pipeline);
+    }
+
+    public InputPipeline getInputPipeline()
+    {
+        return state.getInputPipeline();
+    }
+
+    /**
+     * Set the predictor extrapolating the touch position ahead, to hide the latency of the touch
+     * pipeline. Both the button and the move values sent through callback are predicted.
+     *
+     * @param predictor the predictor, used by this JoystickView only, null for none (default)
+     * @see MotionPredictor
+     */
+    public void setMotionPredictor(MotionPredictor predictor)
+    {
+        state.setMotionPredictor(predictor);
+    }
+
+    public MotionPredictor getMotionPredictor()
+    {
+        return state.getMotionPredictor();
+    }
+
+    /**
+     * Set how the move values are sent through callback.
+     *
+     * @param mode DISPATCH_MODE_FIXED_INTERVAL to send them every loop interval (default),
+     *             DISPATCH_MODE_ON_CHANGE to send them only when they changed
+     */
+    public void setDispatchMode(int mode)
+    {
+        controller.setDispatchMode(mode);
+    }
+
+    public int getDispatchMode()
+    {
+        return controller.getDispatchMode();
+    }
+
+    /**
+     * Set the minimum changes needed to send the move values in DISPATCH_MODE_ON_CHANGE.
+     *
+     * @param angle    deadband of the angle in degrees
+     * @param strength deadband of the strength in percentage
+     */
+    public void setChangeDeadband(int angle, int strength)
+    {
+        controller.getChangeGate().setAngleDeadband(angle);
+        controller.getChangeGate().setStrengthDeadband(strength);
+    }
+
+    /**
+     * Set the time after which the last move values are sent again in DISPATCH_MODE_ON_CHANGE,
+     * even if they did not change.
+     *
+     * @param heartbeatInterval interval in milliseconds, 0 to disable it (default)
+     */
+    public void setHeartbeatInterval(long heartbeatInterval)
+    {
+        controller.getChangeGate().setHeartbeatInterval(heartbeatInterval);
+    }
+
+    /**
+     * @return the number of move values sent through callback
+     */
+    public long getDispatchedCount()
+    {
+        return controller.getChangeGate().getEmittedCount();
+    }
+
+    /**
+     * @return the number of move values that a fixed-interval dispatch would have sent but were
+     * suppressed in DISPATCH_MODE_ON_CHANGE
+     */
+    public long getSuppressedCount()
+    {
+        return controller.getChangeGate().getSuppressedCount();
+    }
+
+    /**
+     * Reset the dispatched and suppressed counters.
+     */
+    public void resetDispatchCounters()
+    {
+        controller.getChangeGate().resetCounters();
     }
 
     /**
@@ -521,28 +1182,107 @@ public class JoystickView extends View implements Runnable
         if (fixedCenter) {
             initPosition();
         }
-        this.fixedCenter = fixedCenter;
+        controller.setFixedCenter(fixedCenter);
         invalidate();
     }
 
-    @Override // Runnable
-    public void run()
+    /**
+     * Record every touch sample of this JoystickView, to be replayed later by a GestureReplayer.
+     * The recorder is not closed by the view.
+     *
+     * @param gestureRecorder the recorder to write to, null to stop recording
+     */
+    public void setGestureRecorder(GestureRecorder gestureRecorder)
     {
-        while (!Thread.interrupted()) {
-            post(new Runnable()
-            {
-                public void run()
-                {
-                    if (callback != null)
-                        callback.onMove(getAngle(), getStrength());
-                }
-            });
+        controller.setGestureRecorder(gestureRecorder);
+    }
 
-            try {
-                Thread.sleep(loopInterval);
-            } catch (InterruptedException e) {
-                break;
-            }
+    /**
+     * Log every value dispatched by this JoystickView with the button position, into the
+     * memory-mapped ring of a TelemetryLog. The log is not closed by the view.
+     *
+     * @param telemetryLog the log to write to, null to stop logging
+     */
+    public void setTelemetryLog(TelemetryLog telemetryLog)
+    {
+        controller.setTelemetryLog(telemetryLog);
+    }
+
+    /**
+     * Adapt the dispatch rate to the velocity of the button and to the time taken by the
+     * listener, within the bounds of the controller. It replaces the loop interval, except when
+     * the view is coordinated. The current rate is given by AdaptiveRateController.getEffectiveRate().
+     *
+     * @param adaptiveRate the controller picking the interval, null to go back to the loop interval
+     */
+    public void setAdaptiveRateController(AdaptiveRateController adaptiveRate)
+    {
+        controller.setAdaptiveRateController(adaptiveRate);
+    }
+
+    /**
+     * @return the input and dispatch path of this JoystickView
+     */
+    public JoystickController getController()
+    {
+        return controller;
+    }
+
+    /**
+     * @return True while the button is pressed and the move values are dispatched
+     */
+    public boolean isDispatching()
+    {
+        return coordinator != null ? coordinator.isPressed(this) : dispatchScheduler.isRegistered(this);
+    }
+
+    /**
+     * Sample this JoystickView on the tick of a coordinator instead of its own, called by
+     * JoystickCoordinator.add() and remove(). A gesture in progress is released first.
+     *
+     * @param coordinator the coordinator dispatching this view, null to dispatch on its own
+     */
+    public void setCoordinator(JoystickCoordinator coordinator)
+    {
+        if (this.coordinator == coordinator) return;
+
+        stopDispatch(SystemClock.uptimeMillis());
+        this.coordinator = coordinator;
+    }
+
+    public JoystickCoordinator getCoordinator()
+    {
+        return coordinator;
+    }
+
+    /**
+     * @return the number of dispatch ticks this JoystickView received, which does not grow
+     * while it is idle
+     */
+    public long getTickCount()
+    {
+        return tickCount;
+    }
+
+    public void resetTickCount()
+    {
+        tickCount = 0;
+    }
+
+    @Override // OnDispatchListener
+    public void onDispatch(long uptimeMillis)
+    {
+        tickCount++;
+        controller.dispatch(uptimeMillis);
+
+        // Follows the adaptive rate, the coordinator keeps its own
+        long interval = controller.getDispatchInterval(loopInterval);
+        if (interval != dispatchInterval && coordinator == null && dispatchScheduler.isRegistered(this)) {
+            dispatchInterval = interval;
+            dispatchScheduler.register(this, interval);
         }
+
+        // A stale prediction moves the button back to the finger
+        invalidateButton();
     }
-}
\ No newline at end of file
+}
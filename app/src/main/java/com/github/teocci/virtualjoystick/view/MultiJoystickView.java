@@ -0,0 +1,701 @@
+package com.github.teocci.virtualjoystick.view;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.github.teocci.virtualjoystick.R;
+import com.github.teocci.virtualjoystick.dispatch.DispatchScheduler;
+import com.github.teocci.virtualjoystick.engine.InputPipeline;
+import com.github.teocci.virtualjoystick.engine.JoystickController;
+import com.github.teocci.virtualjoystick.engine.JoystickState;
+import com.github.teocci.virtualjoystick.engine.MotionPredictor;
+import com.github.teocci.virtualjoystick.engine.StickFrame;
+import com.github.teocci.virtualjoystick.interfaces.OnDispatchListener;
+import com.github.teocci.virtualjoystick.interfaces.OnMultiMoveListener;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Several joysticks handled by a single view. The view is split in side by side square zones,
+ * one stick per zone. Each pointer going down in a zone is bound to its stick by pointer id
+ * until it goes up, so the sticks are driven independently by different fingers.
+ * Each stick has its own JoystickController, the same input path as JoystickView, and the values
+ * of all the sticks are delivered in one OnMultiMoveListener callback on each down, on each tick
+ * and on the last release.
+ */
+public class MultiJoystickView extends View implements OnDispatchListener
+{
+    /**
+     * Default refresh rate as a time in milliseconds to send move values through callback
+     */
+    private static final int DEFAULT_LOOP_INTERVAL = 50; // in milliseconds
+
+    /**
+     * Default number of sticks
+     */
+    private static final int DEFAULT_STICK_COUNT = 2;
+
+    /**
+     * Default color for button
+     */
+    private static final int DEFAULT_COLOR_BUTTON = Color.BLACK;
+
+    /**
+     * Default color for border
+     */
+    private static final int DEFAULT_COLOR_BORDER = Color.TRANSPARENT;
+
+    /**
+     * Default background color
+     */
+    private static final int DEFAULT_BACKGROUND_COLOR = Color.TRANSPARENT;
+
+    /**
+     * Default size of a zone
+     */
+    private static final int DEFAULT_SIZE = 200;
+
+    /**
+     * Ratio use to define the size of the button
+     */
+    private static final double RATIO_SIZE_BUTTON = 0.25;
+
+    /**
+     * Ratio use to define the size of border (as the distance from the center)
+     */
+    private static final double RATIO_SIZE_BORDER = 0.75;
+
+    /**
+     * Default border's width
+     */
+    private static final int DEFAULT_WIDTH_BORDER = 3;
+
+    /**
+     * Default behavior to fixed center (not auto-defined)
+     */
+    private static final boolean DEFAULT_FIXED_CENTER = true;
+
+    /**
+     * Pointer id of a stick not being touched
+     */
+    private static final int NO_POINTER = -1;
+
+    // Drawing
+    private Paint paintCircleButton;
+    private Paint paintCircleBorder;
+    private Paint paintBackground;
+
+    private Paint paintBitmapButton;
+    private Bitmap buttonSource;
+    private Bitmap buttonBitmap;
+
+    /**
+     * Backgrounds and borders of all the zones rendered once into a bitmap
+     */
+    private Bitmap staticLayer;
+    private final Canvas staticCanvas = new Canvas();
+    private boolean staticLayerDirty = true;
+
+    /**
+     * Bounds of each button on the last invalidation, used to only redraw what moved
+     */
+    private final Rect[] buttonBounds;
+    private final Rect dirtyBounds = new Rect();
+
+    // Sticks
+    private final int stickCount;
+    private final JoystickController[] sticks;
+    private final int[] pointerIds;
+    private final int[] fixedCentersX;
+    private int fixedCenterY;
+
+    // Joystick Size
+    private int zoneSize;
+    private int buttonRadius;
+    private int borderRadius;
+
+    /**
+     * Listener used to dispatch the values of all the sticks
+     */
+    private OnMultiMoveListener callback;
+    private final StickFrame frame;
+
+    private long loopInterval = DEFAULT_LOOP_INTERVAL;
+
+    /**
+     * Number of dispatch ticks received
+     */
+    private long tickCount;
+
+    private final DispatchScheduler dispatchScheduler = DispatchScheduler.getInstance();
+
+    public MultiJoystickView(Context context)
+    {
+        this(context, null);
+    }
+
+    public MultiJoystickView(Context context, AttributeSet attribute, int definitionStyleAttribute)
+    {
+        this(context, attribute);
+    }
+
+    public MultiJoystickView(Context context, AttributeSet attrs)
+    {
+        super(context, attrs);
+
+        TypedArray styledAttributes = context.getTheme().obtainStyledAttributes(
+                attrs,
+                R.styleable.MultiJoystickView,
+                0, 0
+        );
+
+        int buttonColor;
+        int borderColor;
+        int backgroundColor;
+        int borderWidth;
+        boolean fixedCenter;
+        Drawable buttonDrawable;
+        try {
+            stickCount = Math.max(1, styledAttributes.getInt(R.styleable.MultiJoystickView_JV_stickCount, DEFAULT_STICK_COUNT));
+            buttonColor = styledAttributes.getColor(R.styleable.MultiJoystickView_JV_buttonColor, DEFAULT_COLOR_BUTTON);
+            borderColor = styledAttributes.getColor(R.styleable.MultiJoystickView_JV_borderColor, DEFAULT_COLOR_BORDER);
+            backgroundColor = styledAttributes.getColor(R.styleable.MultiJoystickView_JV_backgroundColor, DEFAULT_BACKGROUND_COLOR);
+            borderWidth = styledAttributes.getDimensionPixelSize(R.styleable.MultiJoystickView_JV_borderWidth, DEFAULT_WIDTH_BORDER);
+            fixedCenter = styledAttributes.getBoolean(R.styleable.MultiJoystickView_JV_fixedCenter, DEFAULT_FIXED_CENTER);
+            buttonDrawable = styledAttributes.getDrawable(R.styleable.MultiJoystickView_JV_buttonImage);
+        } finally {
+            styledAttributes.recycle();
+        }
+
+        sticks = new JoystickController[stickCount];
+        pointerIds = new int[stickCount];
+        fixedCentersX = new int[stickCount];
+        buttonBounds = new Rect[stickCount];
+        for (int i = 0; i < stickCount; i++) {
+            sticks[i] = new JoystickController();
+            sticks[i].setFixedCenter(fixedCenter);
+            pointerIds[i] = NO_POINTER;
+            buttonBounds[i] = new Rect();
+        }
+        frame = new StickFrame(stickCount);
+
+        // Initialize the drawing according to attributes
+        paintCircleButton = new Paint();
+        paintCircleButton.setAntiAlias(true);
+        paintCircleButton.setColor(buttonColor);
+        paintCircleButton.setStyle(Paint.Style.FILL);
+
+        if (buttonDrawable instanceof BitmapDrawable) {
+            buttonSource = buttonBitmap = ((BitmapDrawable) buttonDrawable).getBitmap();
+            paintBitmapButton = new Paint(Paint.FILTER_BITMAP_FLAG);
+        }
+
+        paintCircleBorder = new Paint();
+        paintCircleBorder.setAntiAlias(true);
+        paintCircleBorder.setColor(borderColor);
+        paintCircleBorder.setStyle(Paint.Style.STROKE);
+        paintCircleBorder.setStrokeWidth(borderWidth);
+
+        paintBackground = new Paint();
+        paintBackground.setAntiAlias(true);
+        paintBackground.setColor(backgroundColor);
+        paintBackground.setStyle(Paint.Style.FILL);
+    }
+
+    private void initPosition()
+    {
+        // get the center of each zone to position the circles
+        fixedCenterY = zoneSize / 2;
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < stickCount; i++) {
+            fixedCentersX[i] = zoneSize * i + zoneSize / 2;
+            sticks[i].getState().setCenter(fixedCentersX[i], fixedCenterY);
+            sticks[i].getState().reset(now);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow()
+    {
+        super.onDetachedFromWindow();
+
+        releaseAllSticks(SystemClock.uptimeMillis());
+        dispatchScheduler.unregister(this);
+
+        if (staticLayer != null) {
+            staticCanvas.setBitmap(null);
+            staticLayer.recycle();
+            staticLayer = null;
+        }
+    }
+
+    /**
+     * Draw the backgrounds, the borders and the buttons of all the sticks
+     *
+     * @param canvas the canvas on which the shapes will be drawn
+     */
+    @Override
+    protected void onDraw(Canvas canvas)
+    {
+        if (staticLayerDirty || staticLayer == null) {
+            renderStaticLayer();
+        }
+        canvas.drawBitmap(staticLayer, 0, 0, null);
+
+        for (int i = 0; i < stickCount; i++) {
+            JoystickState stick = sticks[i].getState();
+            int x = stick.getPosX() + fixedCentersX[i] - stick.getCenterX();
+            int y = stick.getPosY() + fixedCenterY - stick.getCenterY();
+
+            if (buttonBitmap != null) { // Draw the button from image
+                canvas.drawBitmap(buttonBitmap, x - buttonRadius, y - buttonRadius, paintBitmapButton);
+            } else { // Draw the button as simple circle
+                canvas.drawCircle(x, y, buttonRadius, paintCircleButton);
+            }
+        }
+    }
+
+    private void renderStaticLayer()
+    {
+        int w = Math.max(1, getWidth());
+        int h = Math.max(1, getHeight());
+
+        if (staticLayer == null || staticLayer.getWidth() != w || staticLayer.getHeight() != h) {
+            if (staticLayer != null) {
+                staticCanvas.setBitmap(null);
+                staticLayer.recycle();
+            }
+            staticLayer = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        } else {
+            staticLayer.eraseColor(Color.TRANSPARENT);
+        }
+
+        staticCanvas.setBitmap(staticLayer);
+        for (int i = 0; i < stickCount; i++) {
+            staticCanvas.drawCircle(fixedCentersX[i], fixedCenterY, borderRadius, paintBackground);
+            staticCanvas.drawCircle(fixedCentersX[i], fixedCenterY, borderRadius, paintCircleBorder);
+        }
+        staticLayerDirty = false;
+    }
+
+    /**
+     * This is called during layout when the size of this view has changed.
+     * Here we get the size of a zone and the radius to draw all the shapes.
+     *
+     * @param w    Current width of this view.
+     * @param h    Current height of this view.
+     * @param oldW Old width of this view.
+     * @param oldH Old height of this view.
+     */
+    @Override
+    protected void onSizeChanged(int w, int h, int oldW, int oldH)
+    {
+        super.onSizeChanged(w, h, oldW, oldH);
+
+        // radius based on the smallest size of a zone : height OR width
+        zoneSize = Math.min(w / stickCount, h);
+        buttonRadius = (int) (zoneSize / 2 * RATIO_SIZE_BUTTON);
+        borderRadius = (int) (zoneSize / 2 * RATIO_SIZE_BORDER);
+        for (JoystickController stick : sticks) {
+            stick.getState().setBorderRadius(borderRadius);
+        }
+
+        initPosition();
+        staticLayerDirty = true;
+
+        // The whole view is redrawn after a size change
+        for (Rect bounds : buttonBounds) {
+            bounds.setEmpty();
+        }
+
+        if (buttonSource != null)
+            buttonBitmap = ButtonBitmapCache.getInstance().get(buttonSource, buttonRadius * 2);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec)
+    {
+        // setting the measured values to fit the square zones side by side
+        int zone = Math.min(measureSize(widthMeasureSpec, DEFAULT_SIZE * stickCount) / stickCount, measureSize(heightMeasureSpec, DEFAULT_SIZE));
+        setMeasuredDimension(zone * stickCount, zone);
+    }
+
+    private int measureSize(int measureSpec, int defaultSize)
+    {
+        if (MeasureSpec.getMode(measureSpec) == MeasureSpec.UNSPECIFIED) {
+            // if no bounds are specified return a default size
+            return defaultSize;
+        } else {
+            // As you want to fill the available space
+            // always return the full available bounds.
+            return MeasureSpec.getSize(measureSpec);
+        }
+    }
+
+    /**
+     * Handle touch screen motion event. Bind every new pointer to the stick of its zone and
+     * move each stick according to its own pointer.
+     *
+     * @param event The motion event.
+     * @return True if the event was handled, false otherwise.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event)
+    {
+        long eventTime = event.getEventTime();
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                int index = event.getActionIndex();
+                int x = (int) event.getX(index);
+                int y = (int) event.getY(index);
+                int zone = zoneSize > 0 && x >= 0 && y >= 0 && y < zoneSize ? x / zoneSize : -1;
+
+                // A pointer outside of the zones, or in a zone already held, is ignored
+                if (zone >= 0 && zone < stickCount && pointerIds[zone] == NO_POINTER) {
+                    pointerIds[zone] = event.getPointerId(index);
+                    sticks[zone].onDown(x, y, eventTime);
+
+                    if (!dispatchScheduler.isRegistered(this)) {
+                        dispatchScheduler.register(this, loopInterval);
+                    }
+
+                    // Like JoystickView, a stick going down is dispatched right away
+                    dispatchMove(eventTime);
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_MOVE:
+                for (int i = 0; i < stickCount; i++) {
+                    if (pointerIds[i] == NO_POINTER) continue;
+
+                    int index = event.findPointerIndex(pointerIds[i]);
+                    if (index < 0) continue;
+
+                    // Walks the intermediate samples batched in the MotionEvent, oldest first
+                    int historySize = event.getHistorySize();
+                    for (int h = 0; h < historySize; h++) {
+                        sticks[i].onMove(
+                                (int) event.getHistoricalX(index, h),
+                                (int) event.getHistoricalY(index, h),
+                                event.getHistoricalEventTime(h)
+                        );
+                    }
+                    sticks[i].onMove((int) event.getX(index), (int) event.getY(index), eventTime);
+                }
+                break;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_POINTER_UP: {
+                int index = event.getActionIndex();
+                int pointerId = event.getPointerId(index);
+                for (int i = 0; i < stickCount; i++) {
+                    if (pointerIds[i] == pointerId) {
+                        sticks[i].onUp((int) event.getX(index), (int) event.getY(index), eventTime);
+                        releaseStick(i, eventTime);
+                    }
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_CANCEL:
+                releaseAllSticks(eventTime);
+                break;
+        }
+
+        // Redraws the buttons that moved
+        invalidateButtons();
+
+        return true;
+    }
+
+    /**
+     * Release the sticks when the window is hidden, e.g. when the activity is stopped, so
+     * nothing keeps waking up in the background.
+     *
+     * @param visibility the new visibility of the window
+     */
+    @Override
+    protected void onWindowVisibilityChanged(int visibility)
+    {
+        super.onWindowVisibilityChanged(visibility);
+
+        if (visibility != VISIBLE) {
+            releaseAllSticks(SystemClock.uptimeMillis());
+            invalidateButtons();
+        }
+    }
+
+    /**
+     * Release the sticks where they are, the coordinates of a cancel are meaningless.
+     */
+    private void releaseAllSticks(long eventTime)
+    {
+        for (int i = 0; i < stickCount; i++) {
+            if (pointerIds[i] != NO_POINTER) {
+                sticks[i].onCancel(eventTime);
+                releaseStick(i, eventTime);
+            }
+        }
+    }
+
+    /**
+     * Unbind a released stick from its pointer.
+     */
+    private void releaseStick(int i, long eventTime)
+    {
+        pointerIds[i] = NO_POINTER;
+
+        if (getActiveStickCount() == 0) {
+            dispatchScheduler.unregister(this);
+
+            // The release of the last stick is always dispatched
+            dispatchMove(eventTime);
+        }
+    }
+
+    /**
+     * @return the number of dispatch ticks this view received, which does not grow while idle
+     */
+    public long getTickCount()
+    {
+        return tickCount;
+    }
+
+    public void resetTickCount()
+    {
+        tickCount = 0;
+    }
+
+    @Override // OnDispatchListener
+    public void onDispatch(long uptimeMillis)
+    {
+        tickCount++;
+
+        for (int i = 0; i < stickCount; i++) {
+            if (pointerIds[i] != NO_POINTER) {
+                sticks[i].dispatch(uptimeMillis);
+            }
+        }
+
+        dispatchMove(uptimeMillis);
+
+        // A stale prediction moves the button back to the finger
+        invalidateButtons();
+    }
+
+    /**
+     * Redraw the old and the new bounds of each button that moved since the last invalidation.
+     */
+    private void invalidateButtons()
+    {
+        // One more pixel for the antialiasing
+        int r = buttonRadius + 1;
+
+        for (int i = 0; i < stickCount; i++) {
+            JoystickState stick = sticks[i].getState();
+            int x = stick.getPosX() + fixedCentersX[i] - stick.getCenterX();
+            int y = stick.getPosY() + fixedCenterY - stick.getCenterY();
+            int left = x - r;
+            int top = y - r;
+
+            Rect bounds = buttonBounds[i];
+            if (!bounds.isEmpty() && bounds.left == left && bounds.top == top) continue;
+
+            dirtyBounds.set(left, top, x + r, y + r);
+            if (!bounds.isEmpty()) {
+                dirtyBounds.union(bounds);
+            }
+            bounds.set(left, top, x + r, y + r);
+
+            invalidate(dirtyBounds);
+        }
+    }
+
+    /**
+     * Send the values of all the sticks through callback in one frame.
+     *
+     * @param now current time in milliseconds
+     */
+    private void dispatchMove(long now)
+    {
+        if (callback == null) return;
+
+        for (int i = 0; i < stickCount; i++) {
+            frame.set(i, sticks[i].getState(), pointerIds[i] != NO_POINTER);
+        }
+        frame.setFrameTime(now);
+
+        callback.onMultiMove(frame);
+    }
+
+    /**
+     * @return the number of sticks currently touched
+     */
+    public int getActiveStickCount()
+    {
+        int count = 0;
+        for (int pointerId : pointerIds) {
+            if (pointerId != NO_POINTER) count++;
+        }
+        return count;
+    }
+
+    public int getStickCount()
+    {
+        return stickCount;
+    }
+
+    /**
+     * Return the last sample of a stick packed in a long, see JoystickView.getSnapshot().
+     *
+     * @param i index of the stick
+     * @return the packed sample
+     */
+    public long getSnapshot(int i)
+    {
+        return sticks[i].getState().getSnapshot();
+    }
+
+    /**
+     * @param i index of the stick
+     * @return the input path of a stick, to set up its pipeline, predictor, recorder or
+     * telemetry like on a JoystickView. Its listeners are not used, the values of all the sticks
+     * are sent through the OnMultiMoveListener.
+     */
+    public JoystickController getController(int i)
+    {
+        return sticks[i];
+    }
+
+    /**
+     * Set the processing applied to the values of a stick before they are sent through callback.
+     *
+     * @param i        index of the stick
+     * @param pipeline the pipeline, used by this stick only, null for none (default)
+     * @see InputPipeline
+     */
+    public void setInputPipeline(int i, InputPipeline pipeline)
+    {
+        sticks[i].getState().setInputPipeline(pipeline);
+    }
+
+    /**
+     * Set the predictor extrapolating the touch position of a stick ahead.
+     *
+     * @param i         index of the stick
+     * @param predictor the predictor, used by this stick only, null for none (default)
+     * @see MotionPredictor
+     */
+    public void setMotionPredictor(int i, MotionPredictor predictor)
+    {
+        sticks[i].getState().setMotionPredictor(predictor);
+    }
+
+    /**
+     * Set the button color of all the sticks.
+     *
+     * @param color the color of the buttons
+     */
+    public void setButtonColor(int color)
+    {
+        paintCircleButton.setColor(color);
+        invalidate();
+    }
+
+    /**
+     * Set the border color of all the sticks.
+     *
+     * @param color the color of the borders
+     */
+    public void setBorderColor(int color)
+    {
+        paintCircleBorder.setColor(color);
+        staticLayerDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Set the background color of all the sticks.
+     *
+     * @param color the color of the backgrounds
+     */
+    @Override
+    public void setBackgroundColor(int color)
+    {
+        paintBackground.setColor(color);
+        staticLayerDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Set the border width of all the sticks.
+     *
+     * @param width the width of the borders
+     */
+    public void setBorderWidth(int width)
+    {
+        paintCircleBorder.setStrokeWidth(width);
+        staticLayerDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Set the sticks center's behavior (fixed or auto-defined)
+     *
+     * @param fixedCenter True for fixed center, False for auto-defined center based on touch down
+     */
+    public void setFixedCenter(boolean fixedCenter)
+    {
+        // If we set to "fixed" we make sure to re-init position related to the size of the zones
+        if (fixedCenter) {
+            initPosition();
+        }
+        for (JoystickController stick : sticks) {
+            stick.setFixedCenter(fixedCenter);
+        }
+        invalidate();
+    }
+
+    /**
+     * Register a callback to be invoked with the values of all the sticks
+     *
+     * @param l The callback that will run
+     */
+    public void setOnMultiMoveListener(OnMultiMoveListener l)
+    {
+        setOnMultiMoveListener(l, DEFAULT_LOOP_INTERVAL);
+    }
+
+    /**
+     * Register a callback to be invoked with the values of all the sticks
+     *
+     * @param l            The callback that will run
+     * @param loopInterval Refresh rate to be invoked in milliseconds
+     */
+    public void setOnMultiMoveListener(OnMultiMoveListener l, int loopInterval)
+    {
+        callback = l;
+        this.loopInterval = loopInterval;
+
+        // Apply the new rate right away if a gesture is in progress
+        if (dispatchScheduler.isRegistered(this)) {
+            dispatchScheduler.register(this, loopInterval);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.teocci.virtualjoystick.dispatch;
+
+import com.github.teocci.virtualjoystick.interfaces.OnMoveListener;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * The integer values of the legacy listener match the ones the view computed before the precise
+ * dispatch: the signed degrees truncated toward 0, then made positive.
+ */
+public class MoveListenerAdapterTest
+{
+    private int lastAngle = -1;
+    private int lastStrength = -1;
+
+    private final MoveListenerAdapter adapter = new MoveListenerAdapter(new OnMoveListener()
+    {
+        @Override
+        public void onMove(int angle, int strength)
+        {
+            lastAngle = angle;
+            lastStrength = strength;
+        }
+    });
+
+    @Test
+    public void angleJustBelowZeroIsZero()
+    {
+        adapter.onPreciseMove(1, 0, 359.5f, 100, 0);
+        assertEquals(0, lastAngle);
+
+        adapter.onPreciseMove(1, 0, 359.99f, 100, 0);
+        assertEquals(0, lastAngle);
+    }
+
+    @Test
+    public void negativeAngleIsTruncatedBeforeBeingMadePositive()
+    {
+        adapter.onPreciseMove(1, 0, 360 - 10.7f, 100, 0);
+        assertEquals(350, lastAngle);
+
+        adapter.onPreciseMove(-1, 0, 180.5f, 100, 0);
+        assertEquals(181, lastAngle);
+    }
+
+    @Test
+    public void positiveAngleIsTruncated()
+    {
+        adapter.onPreciseMove(0, 1, 90.9f, 100, 0);
+        assertEquals(90, lastAngle);
+
+        adapter.onPreciseMove(-1, 0, 180, 100, 0);
+        assertEquals(180, lastAngle);
+    }
+
+    @Test
+    public void angleMatchesTheIntegerDispatch()
+    {
+        for (int dy = -300; dy <= 300; dy += 7) {
+            for (int dx = -300; dx <= 300; dx += 7) {
+                double degrees = Math.toDegrees(Math.atan2(dy, dx));
+                float angle = (float) (degrees < 0 ? degrees + 360 : degrees);
+                adapter.onPreciseMove(0, 0, angle, 100, 0);
+
+                int expected = (int) degrees;
+                assertEquals(dx + ", " + dy, expected < 0 ? expected + 360 : expected, lastAngle);
+            }
+        }
+    }
+
+    @Test
+    public void strengthIsTruncated()
+    {
+        adapter.onPreciseMove(0.5f, 0, 0, 49.9f, 0);
+        assertEquals(49, lastStrength);
+    }
+}
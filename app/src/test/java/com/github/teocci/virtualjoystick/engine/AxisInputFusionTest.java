@@ -0,0 +1,96 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Synthetic gamepad axes move the button like a touch, and a touch takes over.
+ */
+public class AxisInputFusionTest
+{
+    private static final int CENTER = GestureTrace.CENTER;
+    private static final int RADIUS = GestureTrace.BORDER_RADIUS;
+
+    private JoystickController controller;
+    private JoystickState state;
+    private AxisInputFusion fusion;
+
+    private float lastStrength = -1;
+
+    @Before
+    public void setUp()
+    {
+        controller = new JoystickController();
+        controller.getState().setCenter(CENTER, CENTER);
+        controller.getState().setBorderRadius(RADIUS);
+        controller.setOnPreciseMoveListener(new OnPreciseMoveListener()
+        {
+            @Override
+            public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+            {
+                lastStrength = strength;
+            }
+        });
+        state = controller.getState();
+        fusion = new AxisInputFusion(controller);
+        fusion.setFlat(0.1f, 0.1f);
+    }
+
+    @Test
+    public void restInsideTheFlatZoneIsIgnored()
+    {
+        assertFalse(fusion.onAxes(0.05f, -0.08f, 0));
+        assertFalse(controller.isPressed());
+    }
+
+    @Test
+    public void axesMoveTheButton()
+    {
+        // Full right and full up, y of the axes grows downward
+        fusion.onAxes(1, 0, 8);
+        assertEquals(0, state.getAngle(), 0.01f);
+        assertEquals(100, state.getStrength(), 0.01f);
+
+        fusion.onAxes(0, -1, 16);
+        assertEquals(90, state.getAngle(), 0.01f);
+        assertEquals(AxisInputFusion.SOURCE_AXES, fusion.getSource());
+    }
+
+    @Test
+    public void strengthStartsAtTheFlatZone()
+    {
+        // Half way past the flat zone is half strength
+        fusion.onAxes(0.55f, 0, 24);
+        assertEquals(50, state.getStrength(), 1);
+    }
+
+    @Test
+    public void touchTakesOverTheAxes()
+    {
+        fusion.onAxes(1, 0, 8);
+        fusion.onTouchDown(CENTER - RADIUS, CENTER, 32);
+
+        assertFalse(fusion.onAxes(1, 0, 40));
+        assertEquals(180, state.getAngle(), 0.01f);
+    }
+
+    @Test
+    public void flatZoneReleasesTheButton()
+    {
+        fusion.onAxes(0.5f, 0, 56);
+        fusion.onAxes(0, 0, 64);
+
+        assertFalse(controller.isPressed());
+        assertEquals(0, state.getStrength(), 0);
+        assertEquals(0, lastStrength, 0);
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * A burst of values offered to a delivery whose executor does not run yet, as a listener that
+ * does not keep up: the backpressure policies keep the right values and count the dropped ones.
+ */
+public class ExecutorDeliveryTest
+{
+    private static final int CAPACITY = 4;
+    private static final int OFFERED = 10;
+
+    private final ManualExecutor executor = new ManualExecutor();
+    private final List<Long> delivered = new ArrayList<>();
+
+    @Test
+    public void dropOldestKeepsTheNewestValues()
+    {
+        assertBurst(ExecutorDelivery.POLICY_DROP_OLDEST, CAPACITY, OFFERED - CAPACITY);
+    }
+
+    @Test
+    public void latestOnlyKeepsTheLastValue()
+    {
+        assertBurst(ExecutorDelivery.POLICY_LATEST_ONLY, 1, OFFERED - 1);
+    }
+
+    @Test
+    public void boundedQueueKeepsTheOldestValues()
+    {
+        assertBurst(ExecutorDelivery.POLICY_BOUNDED_QUEUE, CAPACITY, 0);
+    }
+
+    @Test
+    public void valueAfterTheDrainIsScheduledAgain()
+    {
+        ExecutorDelivery delivery = offerBurst(ExecutorDelivery.POLICY_DROP_OLDEST);
+        executor.runAll();
+
+        delivery.onPreciseMove(0, 0, 0, 0, OFFERED);
+        assertEquals(1, executor.tasks.size());
+    }
+
+    @Test
+    public void releaseDropsTheQueuedValues()
+    {
+        ExecutorDelivery delivery = offerBurst(ExecutorDelivery.POLICY_DROP_OLDEST);
+        executor.runAll();
+        delivery.onPreciseMove(0, 0, 0, 0, OFFERED);
+
+        delivery.release();
+        executor.runAll();
+
+        assertEquals(0, delivery.getQueueDepth());
+        assertEquals(CAPACITY, delivered.size());
+        assertEquals(OFFERED - CAPACITY + 1, delivery.getDroppedCount());
+    }
+
+    @Test
+    public void resetMetricsClearsTheCounts()
+    {
+        ExecutorDelivery delivery = offerBurst(ExecutorDelivery.POLICY_DROP_OLDEST);
+        executor.runAll();
+
+        delivery.resetMetrics();
+
+        assertEquals(0, delivery.getDeliveredCount());
+        assertEquals(0, delivery.getDroppedCount());
+        assertEquals(0, delivery.getMaxQueueDepth());
+    }
+
+    /**
+     * @param kept           number of values the policy is expected to keep
+     * @param firstDelivered event time of the first value the policy is expected to keep
+     */
+    private void assertBurst(int policy, int kept, long firstDelivered)
+    {
+        ExecutorDelivery delivery = offerBurst(policy);
+        assertEquals(kept, delivery.getQueueDepth());
+        assertEquals(kept, delivery.getMaxQueueDepth());
+        assertEquals(OFFERED - kept, delivery.getDroppedCount());
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        assertEquals(kept, delivered.size());
+        for (int i = 0; i < delivered.size(); i++) {
+            assertEquals(firstDelivered + i, (long) delivered.get(i));
+        }
+        assertEquals(kept, delivery.getDeliveredCount());
+        assertEquals(0, delivery.getQueueDepth());
+    }
+
+    private ExecutorDelivery offerBurst(int policy)
+    {
+        ExecutorDelivery delivery = new ExecutorDelivery(new OnPreciseMoveListener()
+        {
+            @Override
+            public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+            {
+                delivered.add(eventTime);
+            }
+        }, executor, policy, CAPACITY);
+
+        for (int i = 0; i < OFFERED; i++) {
+            delivery.onPreciseMove(0, 0, 0, 0, i);
+        }
+        return delivery;
+    }
+
+    /**
+     * Executor running its tasks only when asked, to emulate a listener thread that is behind.
+     */
+    private static class ManualExecutor implements Executor
+    {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command)
+        {
+            tasks.add(command);
+        }
+
+        void runAll()
+        {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * A gesture recorded through the controller replays to the same callbacks, and a slow channel
+ * drops samples instead of blocking the recording thread.
+ */
+public class GestureRecorderTest
+{
+    private static final int LOOP_INTERVAL = 48;
+
+    private static final String[] TRACES = {
+            GestureTrace.CIRCLE, GestureTrace.FLICK, GestureTrace.HOLD, GestureTrace.RANDOM_WALK
+    };
+
+    private int callbackCount;
+
+    private final OnPreciseMoveListener counter = new OnPreciseMoveListener()
+    {
+        @Override
+        public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+        {
+            callbackCount++;
+        }
+    };
+
+    @Test
+    public void replayDispatchesTheRecordedCallbacks() throws IOException, InterruptedException
+    {
+        for (String name : TRACES) {
+            GestureTrace trace = GestureTrace.create(name, GestureTrace.DEFAULT_LENGTH);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            GestureRecorder recorder = new GestureRecorder(Channels.newChannel(bytes));
+
+            JoystickController controller = createController();
+            controller.setGestureRecorder(recorder);
+            trace.drive(controller, LOOP_INTERVAL);
+            recorder.close();
+            int recordedCount = callbackCount;
+
+            // Replayed with the same tick phase, from the first sample
+            controller = createController();
+            GestureReplayer replayer = new GestureReplayer(
+                    Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()))
+            );
+            long samples = replayer.replay(controller, LOOP_INTERVAL, 0);
+            replayer.close();
+
+            assertEquals(name, trace.length(), samples);
+            assertEquals(name, recordedCount, callbackCount);
+        }
+    }
+
+    @Test
+    public void slowChannelDropsSamplesInsteadOfBlocking() throws IOException, InterruptedException
+    {
+        GestureTrace trace = GestureTrace.create(GestureTrace.RANDOM_WALK, GestureTrace.DEFAULT_LENGTH);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StalledChannel channel = new StalledChannel(Channels.newChannel(bytes));
+        GestureRecorder recorder = new GestureRecorder(channel, 256);
+
+        // The writer thread is stuck on the first buffer, the recording goes on regardless
+        for (int i = 0; i < trace.length(); i++) {
+            int action = i == 0 ? GestureRecorder.ACTION_DOWN
+                    : i == trace.length() - 1 ? GestureRecorder.ACTION_UP : GestureRecorder.ACTION_MOVE;
+            recorder.record(action, trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+        }
+        assertTrue(recorder.getDroppedCount() > 0);
+        assertEquals(trace.length(), recorder.getSampleCount() + recorder.getDroppedCount());
+
+        channel.resume();
+        recorder.close();
+
+        // The samples kept still decode, the dropped ones are skipped
+        GestureReplayer replayer = new GestureReplayer(
+                Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()))
+        );
+        long samples = 0;
+        while (replayer.next()) {
+            samples++;
+        }
+        replayer.close();
+        assertEquals(recorder.getSampleCount(), samples);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replayerRejectsANonBlockingChannel() throws IOException
+    {
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            new GestureReplayer(channel);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private JoystickController createController()
+    {
+        JoystickController controller = new JoystickController();
+        controller.getState().setCenter(GestureTrace.CENTER, GestureTrace.CENTER);
+        controller.getState().setBorderRadius(GestureTrace.BORDER_RADIUS);
+        controller.getChangeGate().setMinInterval(LOOP_INTERVAL);
+        controller.setOnPreciseMoveListener(counter);
+        callbackCount = 0;
+        return controller;
+    }
+
+    /**
+     * Channel blocking its writes until resumed, as a storage that does not keep up.
+     */
+    private static class StalledChannel implements WritableByteChannel
+    {
+        final WritableByteChannel channel;
+        final CountDownLatch resumed = new CountDownLatch(1);
+
+        StalledChannel(WritableByteChannel channel)
+        {
+            this.channel = channel;
+        }
+
+        void resume()
+        {
+            resumed.countDown();
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException
+        {
+            try {
+                resumed.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return channel.write(src);
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import java.util.Random;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Synthetic touch trace used by the unit tests and the benchmarks. Traces are generated from a
+ * fixed seed so that every run replays exactly the same gestures, sampled at 120 Hz on a 600 px
+ * JoystickView.
+ */
+public final class GestureTrace
+{
+    /**
+     * Geometry of a 600 px JoystickView, the border radius follows RATIO_SIZE_BORDER
+     */
+    public static final int VIEW_SIZE = 600;
+    public static final int CENTER = VIEW_SIZE / 2;
+    public static final int BORDER_RADIUS = (int) (VIEW_SIZE / 2 * 0.75);
+
+    /**
+     * Time between two samples in milliseconds
+     */
+    public static final int SAMPLE_INTERVAL = 8;
+
+    /**
+     * Default number of samples of a trace
+     */
+    public static final int DEFAULT_LENGTH = 4096;
+
+    public static final String CIRCLE = "circle";
+    public static final String FLICK = "flick";
+    public static final String HOLD = "hold";
+    public static final String RANDOM_WALK = "randomWalk";
+
+    private static final long SEED = 0x5EEDL;
+
+    public final int[] xs;
+    public final int[] ys;
+    public final long[] eventTimes;
+
+    private GestureTrace(int length)
+    {
+        xs = new int[length];
+        ys = new int[length];
+        eventTimes = new long[length];
+    }
+
+    public int length()
+    {
+        return xs.length;
+    }
+
+    /**
+     * Generate a trace.
+     *
+     * @param name   one of CIRCLE, FLICK, HOLD or RANDOM_WALK
+     * @param length number of samples
+     * @return the trace
+     */
+    public static GestureTrace create(String name, int length)
+    {
+        GestureTrace trace = new GestureTrace(length);
+        Random random = new Random(SEED);
+
+        double x = CENTER;
+        double y = CENTER;
+        double dirX = 0;
+        double dirY = 0;
+        for (int i = 0; i < length; i++) {
+            if (CIRCLE.equals(name)) {
+                // One turn per second at 90% of the border
+                double a = 2 * Math.PI * i * SAMPLE_INTERVAL / 1000.0;
+                x = CENTER + Math.cos(a) * BORDER_RADIUS * 0.9;
+                y = CENTER + Math.sin(a) * BORDER_RADIUS * 0.9;
+            } else if (FLICK.equals(name)) {
+                // A flick every 16 samples, thrown past the border in a random direction
+                int phase = i % 16;
+                if (phase == 0) {
+                    double a = random.nextDouble() * 2 * Math.PI;
+                    dirX = Math.cos(a);
+                    dirY = Math.sin(a);
+                }
+                double r = (phase < 8 ? phase : 16 - phase) * BORDER_RADIUS * 0.2;
+                x = CENTER + dirX * r;
+                y = CENTER + dirY * r;
+            } else if (HOLD.equals(name)) {
+                // Held still at half strength with one pixel of digitizer jitter
+                x = CENTER + BORDER_RADIUS / 2 + random.nextInt(3) - 1;
+                y = CENTER + random.nextInt(3) - 1;
+            } else if (RANDOM_WALK.equals(name)) {
+                x = Math.max(0, Math.min(VIEW_SIZE, x + random.nextGaussian() * 12));
+                y = Math.max(0, Math.min(VIEW_SIZE, y + random.nextGaussian() * 12));
+            } else {
+                throw new IllegalArgumentException("Unknown trace: " + name);
+            }
+
+            trace.xs[i] = (int) x;
+            trace.ys[i] = (int) y;
+            trace.eventTimes[i] = (long) i * SAMPLE_INTERVAL;
+        }
+
+        return trace;
+    }
+
+    /**
+     * Drive the whole gesture through a controller like JoystickView does: the first sample goes
+     * down, the last one goes up, and a dispatch tick runs every loop interval after the first touch.
+     *
+     * @param controller   the controller to drive
+     * @param loopInterval time between two ticks in milliseconds
+     * @return the number of ticks
+     */
+    public int drive(JoystickController controller, long loopInterval)
+    {
+        int last = length() - 1;
+        int ticks = 0;
+        long nextTick = eventTimes[0] + loopInterval;
+
+        controller.onDown(xs[0], ys[0], eventTimes[0]);
+        for (int i = 1; i <= last; i++) {
+            while (nextTick <= eventTimes[i]) {
+                controller.dispatch(nextTick);
+                nextTick += loopInterval;
+                ticks++;
+            }
+            if (i < last) {
+                controller.onMove(xs[i], ys[i], eventTimes[i]);
+            }
+        }
+        controller.onUp(xs[last], ys[last], eventTimes[last]);
+        return ticks;
+    }
+}
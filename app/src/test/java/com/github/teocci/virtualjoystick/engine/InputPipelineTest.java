@@ -0,0 +1,95 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * The filter of the pipeline with the settle steps of the dispatch ticks in between the touch
+ * samples, which may be older than the last tick.
+ */
+public class InputPipelineTest
+{
+    private InputPipeline pipeline;
+
+    @Before
+    public void setUp()
+    {
+        pipeline = new InputPipeline();
+        pipeline.setLowPassFilter(2);
+    }
+
+    @Test
+    public void settleMovesTowardTheHeldSample()
+    {
+        pipeline.process(0, 0, 0);
+        pipeline.process(1, 0, 8);
+        float x = pipeline.getX();
+        assertTrue(pipeline.isSettling());
+
+        for (long now = 50; now <= 5000; now += 50) {
+            pipeline.settle(now);
+            assertTrue(pipeline.getX() >= x);
+            x = pipeline.getX();
+        }
+        assertEquals(1, x, 0.001f);
+        assertFalse(pipeline.isSettling());
+    }
+
+    @Test
+    public void sampleOlderThanTheLastSettleStepIsFiltered()
+    {
+        InputPipeline reference = new InputPipeline();
+        reference.setLowPassFilter(2);
+        reference.process(0, 0, 0);
+        reference.process(1, 0, 96);
+
+        // A tick at 100 settles the filter before the MotionEvent with the sample of 96 comes
+        pipeline.process(0, 0, 0);
+        pipeline.settle(100);
+        pipeline.process(1, 0, 96);
+
+        assertTrue(pipeline.getX() > 0);
+        assertEquals(reference.getX(), pipeline.getX(), 1e-6f);
+    }
+
+    @Test
+    public void samplesOlderThanTheLastSettleStepAreFilteredFromEachOther()
+    {
+        InputPipeline reference = new InputPipeline();
+        reference.setLowPassFilter(2);
+        reference.process(0, 0, 0);
+        reference.process(0.5f, 0, 92);
+        reference.process(1, 0, 96);
+
+        pipeline.process(0, 0, 0);
+        pipeline.settle(100);
+        pipeline.process(0.5f, 0, 92);
+        pipeline.process(1, 0, 96);
+
+        assertEquals(reference.getX(), pipeline.getX(), 1e-6f);
+    }
+
+    @Test
+    public void settleAfterAnOlderSampleStartsFromTheLastStep()
+    {
+        pipeline.process(0, 0, 0);
+        pipeline.settle(100);
+        pipeline.process(1, 0, 96);
+        float x = pipeline.getX();
+
+        // Not filtered again from 96
+        pipeline.settle(100);
+        assertEquals(x, pipeline.getX(), 0);
+
+        pipeline.settle(150);
+        assertTrue(pipeline.getX() > x);
+    }
+}
@@ -0,0 +1,269 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import com.github.teocci.virtualjoystick.interfaces.OnMoveBatchListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * The dispatch path JoystickView delegates its MotionEvents and scheduler ticks to: the callback
+ * rate of both dispatch modes, the batched samples, the latency measurement and the adaptive rate.
+ */
+public class JoystickControllerTest
+{
+    private static final int EVENTS_PER_TICK = 6;
+    private static final int LOOP_INTERVAL = EVENTS_PER_TICK * GestureTrace.SAMPLE_INTERVAL;
+
+    private static final int CENTER = GestureTrace.CENTER;
+    private static final int RADIUS = GestureTrace.BORDER_RADIUS;
+
+    private JoystickController controller;
+    private int ticks;
+
+    // Values received by the callback
+    private int callbackCount;
+    private float lastStrength;
+
+    private final OnPreciseMoveListener counter = new OnPreciseMoveListener()
+    {
+        @Override
+        public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+        {
+            callbackCount++;
+            lastStrength = strength;
+        }
+    };
+
+    @Before
+    public void setUp()
+    {
+        controller = new JoystickController();
+        controller.getState().setCenter(CENTER, CENTER);
+        controller.getState().setBorderRadius(RADIUS);
+        controller.getChangeGate().setTickInterval(LOOP_INTERVAL);
+        controller.setOnPreciseMoveListener(counter);
+    }
+
+    @Test
+    public void fixedIntervalDispatchesEveryTickAndThePressAndRelease()
+    {
+        GestureTrace trace = GestureTrace.create(GestureTrace.RANDOM_WALK, GestureTrace.DEFAULT_LENGTH);
+        int ticks = trace.drive(controller, LOOP_INTERVAL);
+
+        assertEquals(ticks + 2, callbackCount);
+    }
+
+    @Test
+    public void onChangeDispatchesAtMostEveryTick()
+    {
+        controller.setDispatchMode(JoystickController.DISPATCH_MODE_ON_CHANGE);
+        GestureTrace trace = GestureTrace.create(GestureTrace.RANDOM_WALK, GestureTrace.DEFAULT_LENGTH);
+        int ticks = trace.drive(controller, LOOP_INTERVAL);
+
+        assertTrue(callbackCount + " callbacks for " + ticks + " ticks", callbackCount <= ticks + 2);
+    }
+
+    @Test
+    public void onChangeKeepsTheChangesOfJitteredTicks()
+    {
+        controller.setDispatchMode(JoystickController.DISPATCH_MODE_ON_CHANGE);
+
+        // A turn every two seconds moves the button past the deadband on every tick, which
+        // fires up to 2 milliseconds early or late
+        long[] jitter = {-2, 1, -1, 2, 0, -2, -1};
+        int ticks = 0;
+        long now = 0;
+        controller.onDown(CENTER + RADIUS, CENTER, now);
+        for (int i = 0; i < 40; i++) {
+            now = (i + 1) * LOOP_INTERVAL + jitter[i % jitter.length];
+            double angle = 2 * Math.PI * now / 2000;
+            controller.onMove(
+                    CENTER + (int) Math.round(RADIUS * Math.cos(angle)),
+                    CENTER - (int) Math.round(RADIUS * Math.sin(angle)),
+                    now
+            );
+            controller.dispatch(now);
+            ticks++;
+        }
+
+        assertEquals(ticks + 1, callbackCount);
+    }
+
+    @Test
+    public void onChangeAlwaysDispatchesTheRelease()
+    {
+        controller.setDispatchMode(JoystickController.DISPATCH_MODE_ON_CHANGE);
+        GestureTrace.create(GestureTrace.CIRCLE, GestureTrace.DEFAULT_LENGTH).drive(controller, LOOP_INTERVAL);
+
+        assertEquals(0, lastStrength, 0);
+        assertFalse(controller.isPressed());
+    }
+
+    @Test
+    public void batchHoldsTheTouchesNotTheirPrediction()
+    {
+        GestureTrace trace = GestureTrace.create(GestureTrace.FLICK, GestureTrace.DEFAULT_LENGTH);
+        controller.getState().setMotionPredictor(new MotionPredictor());
+        final List<Float> batched = new ArrayList<>();
+        controller.setOnMoveBatchListener(new OnMoveBatchListener()
+        {
+            @Override
+            public void onMoveBatch(SampleBatch batch)
+            {
+                for (int i = 0; i < batch.size(); i++) {
+                    batched.add(batch.getX(i));
+                    batched.add(batch.getY(i));
+                }
+            }
+        }, trace.length());
+
+        trace.drive(controller, LOOP_INTERVAL);
+
+        // Every touch but the release, clamped to the border, then the rest position. The state
+        // truncates the clamped button to whole pixels.
+        assertEquals(2 * trace.length(), batched.size());
+        JoystickState reference = new JoystickState();
+        reference.setCenter(CENTER, CENTER);
+        reference.setBorderRadius(RADIUS);
+        float tolerance = 1.5f / RADIUS;
+        for (int i = 0; i < trace.length() - 1; i++) {
+            reference.moveTo(trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+            assertEquals("sample " + i, reference.getX(), batched.get(2 * i), tolerance);
+            assertEquals("sample " + i, reference.getY(), batched.get(2 * i + 1), tolerance);
+        }
+        assertEquals(0, batched.get(batched.size() - 2), 0);
+        assertEquals(0, batched.get(batched.size() - 1), 0);
+    }
+
+    @Test
+    public void settledValuesAreNotMeasuredAsInputLatency()
+    {
+        InputPipeline pipeline = new InputPipeline();
+        pipeline.setLowPassFilter(2);
+        controller.getState().setInputPipeline(pipeline);
+        LatencyMonitor monitor = new LatencyMonitor();
+        controller.setLatencyMonitor(monitor);
+
+        // A flick to the border, then held there while the filter catches up on every tick
+        controller.onDown(CENTER, CENTER, 0);
+        controller.onMove(CENTER + RADIUS, CENTER, GestureTrace.SAMPLE_INTERVAL);
+        int ticks = 0;
+        float settledFrom = -1;
+        for (long now = LOOP_INTERVAL; now < 1000; now += LOOP_INTERVAL) {
+            controller.dispatch(now);
+            if (settledFrom < 0) settledFrom = lastStrength;
+            ticks++;
+        }
+        assertTrue(lastStrength > settledFrom);
+        controller.onUp(CENTER + RADIUS, CENTER, 1000);
+
+        // The move and the release, not every settled tick
+        assertTrue(monitor.getCallback().getCount() > ticks);
+        assertTrue(monitor.getInputToCallback().getCount() <= 3);
+    }
+
+    @Test
+    public void adaptiveRateIsTheShortestWhileSpinning()
+    {
+        AdaptiveRateController adaptiveRate = new AdaptiveRateController();
+        controller.setAdaptiveRateController(adaptiveRate);
+
+        spin(0, 400);
+
+        assertEquals(adaptiveRate.getMinInterval(), adaptiveRate.getEffectiveInterval());
+    }
+
+    @Test
+    public void adaptiveRateIsTheLongestWhileHolding()
+    {
+        AdaptiveRateController adaptiveRate = new AdaptiveRateController();
+        controller.setAdaptiveRateController(adaptiveRate);
+
+        long now = spin(0, 400);
+        long end = now + 1000;
+        while (now < end) {
+            now += controller.getDispatchInterval(LOOP_INTERVAL);
+            controller.dispatch(now);
+        }
+
+        assertEquals(adaptiveRate.getMaxInterval(), adaptiveRate.getEffectiveInterval());
+    }
+
+    @Test
+    public void onChangeFollowsTheAdaptiveRate()
+    {
+        controller.setDispatchMode(JoystickController.DISPATCH_MODE_ON_CHANGE);
+        AdaptiveRateController adaptiveRate = new AdaptiveRateController();
+        controller.setAdaptiveRateController(adaptiveRate);
+
+        // The button moves past the deadband between two ticks of the shortest interval
+        spin(0, 400);
+
+        assertEquals(ticks + 1, callbackCount);
+    }
+
+    @Test
+    public void adaptiveRateBacksOffFromASlowListener()
+    {
+        AdaptiveRateController adaptiveRate = new AdaptiveRateController();
+        controller.setAdaptiveRateController(adaptiveRate);
+        controller.setOnPreciseMoveListener(new OnPreciseMoveListener()
+        {
+            @Override
+            public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+            {
+                long until = System.nanoTime() + 20 * 1000000L;
+                while (System.nanoTime() < until) {
+                    Thread.yield();
+                }
+            }
+        });
+
+        spin(0, 400);
+
+        long interval = adaptiveRate.getEffectiveInterval();
+        assertTrue(interval + " ms", interval >= 20 / AdaptiveRateController.DEFAULT_COST_RATIO * 0.75f);
+    }
+
+    /**
+     * Spin the button along the border, with a sample every SAMPLE_INTERVAL and a tick every
+     * adaptive interval.
+     *
+     * @return the time of the last sample
+     */
+    private long spin(long start, long period)
+    {
+        controller.onDown(CENTER + RADIUS, CENTER, start);
+
+        long now = start;
+        long nextTick = start + controller.getDispatchInterval(LOOP_INTERVAL);
+        while (now < start + period) {
+            now += GestureTrace.SAMPLE_INTERVAL;
+            while (nextTick <= now) {
+                controller.dispatch(nextTick);
+                ticks++;
+                nextTick += controller.getDispatchInterval(LOOP_INTERVAL);
+            }
+
+            double angle = 2 * Math.PI * (now - start) / period;
+            controller.onMove(
+                    CENTER + (int) Math.round(RADIUS * Math.cos(angle)),
+                    CENTER - (int) Math.round(RADIUS * Math.sin(angle)),
+                    now
+            );
+        }
+        return now;
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * The border clamp, the angle and the strength of every synthetic trace against a double
+ * precision reference, for both math paths, and the values published to the other threads.
+ */
+public class JoystickStateTest
+{
+    private static final String[] TRACES = {
+            GestureTrace.CIRCLE, GestureTrace.FLICK, GestureTrace.HOLD, GestureTrace.RANDOM_WALK
+    };
+
+    private static final float MAX_STRENGTH_ERROR = 0.01f;
+
+    private static final int CENTER = GestureTrace.CENTER;
+    private static final int RADIUS = GestureTrace.BORDER_RADIUS;
+
+    private JoystickState state;
+
+    @Before
+    public void setUp()
+    {
+        state = new JoystickState();
+        state.setCenter(CENTER, CENTER);
+        state.setBorderRadius(RADIUS);
+    }
+
+    @Test
+    public void clampKeepsTheButtonInsideTheBorder()
+    {
+        assertClamped(false);
+    }
+
+    @Test
+    public void clampKeepsTheButtonInsideTheBorderWithFastMath()
+    {
+        assertClamped(true);
+    }
+
+    @Test
+    public void angleMatchesTheReference()
+    {
+        assertAngle(false);
+    }
+
+    @Test
+    public void angleMatchesTheReferenceWithFastMath()
+    {
+        assertAngle(true);
+    }
+
+    @Test
+    public void strengthMatchesTheReference()
+    {
+        assertStrength(false);
+    }
+
+    @Test
+    public void strengthMatchesTheReferenceWithFastMath()
+    {
+        assertStrength(true);
+    }
+
+    @Test
+    public void snapshotDecodesToTheStateValues()
+    {
+        GestureTrace trace = GestureTrace.create(GestureTrace.RANDOM_WALK, GestureTrace.DEFAULT_LENGTH);
+        for (int i = 0; i < trace.length(); i++) {
+            state.moveTo(trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+
+            long snapshot = state.getSnapshot();
+            assertEquals(state.getX(), JoystickSnapshot.getX(snapshot), 0.0001f);
+            assertEquals(state.getY(), JoystickSnapshot.getY(snapshot), 0.0001f);
+            assertTrue(angleDifference(JoystickSnapshot.getAngle(snapshot), state.getAngle()) < 0.051);
+            assertEquals(state.getStrength(), JoystickSnapshot.getStrength(snapshot), 0.01f);
+        }
+    }
+
+    @Test
+    public void snapshotSequenceDoesNotWrapWithinALongGesture()
+    {
+        int samples = 100000;
+        int sequence = JoystickSnapshot.getSequence(state.getSnapshot());
+        for (int i = 1; i <= samples; i++) {
+            state.moveTo(CENTER + i % RADIUS, CENTER, i);
+
+            int next = JoystickSnapshot.getSequence(state.getSnapshot());
+            assertEquals(sequence + 1, next);
+            sequence = next;
+        }
+        assertTrue(samples < JoystickSnapshot.SEQUENCE_MODULO);
+    }
+
+    @Test
+    public void buttonPositionIsTheOffsetFromTheCenter()
+    {
+        state.moveTo(CENTER + 2 * RADIUS, CENTER - 10, 0);
+
+        long position = state.getButtonPosition();
+        assertEquals(state.getPosX() - CENTER, JoystickState.getButtonOffsetX(position));
+        assertEquals(state.getPosY() - CENTER, JoystickState.getButtonOffsetY(position));
+        assertTrue(JoystickState.getButtonOffsetY(position) < 0);
+    }
+
+    @Test
+    public void settleDoesNotAdvanceTheInputSequence()
+    {
+        InputPipeline pipeline = new InputPipeline();
+        pipeline.setLowPassFilter(2);
+        state.setInputPipeline(pipeline);
+
+        // A flick to the border the filter is behind of
+        state.moveTo(CENTER, CENTER, 0);
+        state.moveTo(CENTER + RADIUS, CENTER, GestureTrace.SAMPLE_INTERVAL);
+        int inputSequence = state.getInputSequence();
+        int sequence = JoystickSnapshot.getSequence(state.getSnapshot());
+        for (long now = 50; now < 1000; now += 50) {
+            state.settle(now);
+        }
+
+        assertEquals(inputSequence, state.getInputSequence());
+        assertTrue(JoystickSnapshot.getSequence(state.getSnapshot()) != sequence);
+    }
+
+    private void assertClamped(boolean fastMath)
+    {
+        state.setFastMath(fastMath);
+        for (String name : TRACES) {
+            GestureTrace trace = GestureTrace.create(name, GestureTrace.DEFAULT_LENGTH);
+            for (int i = 0; i < trace.length(); i++) {
+                state.moveTo(trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+
+                double distance = Math.hypot(state.getPosX() - CENTER, state.getPosY() - CENTER);
+                assertTrue(name + " sample " + i + " past the border", distance <= RADIUS);
+                assertTrue(name + " sample " + i + " past 100%", state.getStrength() <= 100);
+            }
+        }
+    }
+
+    private void assertAngle(boolean fastMath)
+    {
+        state.setFastMath(fastMath);
+        for (String name : TRACES) {
+            GestureTrace trace = GestureTrace.create(name, GestureTrace.DEFAULT_LENGTH);
+            for (int i = 0; i < trace.length(); i++) {
+                state.moveTo(trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+
+                // The reference follows the raw direction, as the clamp does not change it
+                int dx = trace.xs[i] - CENTER;
+                int dy = CENTER - trace.ys[i];
+                if (dx == 0 && dy == 0) continue;
+
+                double expected = Math.toDegrees(Math.atan2(dy, dx));
+                if (expected < 0) expected += 360;
+
+                // The double path derives the values from the truncated button position
+                double tolerance = FastJoystickMath.MAX_ANGLE_ERROR
+                        + (Math.hypot(dx, dy) > RADIUS ? Math.toDegrees(1.5 / RADIUS) : 0);
+                assertTrue(name + " sample " + i + ": " + state.getAngle() + " instead of " + expected,
+                        angleDifference(state.getAngle(), expected) <= tolerance);
+            }
+        }
+    }
+
+    private void assertStrength(boolean fastMath)
+    {
+        state.setFastMath(fastMath);
+        for (String name : TRACES) {
+            GestureTrace trace = GestureTrace.create(name, GestureTrace.DEFAULT_LENGTH);
+            for (int i = 0; i < trace.length(); i++) {
+                state.moveTo(trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+
+                double distance = Math.hypot(trace.xs[i] - CENTER, trace.ys[i] - CENTER);
+                double expected = 100 * Math.min(1, distance / RADIUS);
+                double tolerance = MAX_STRENGTH_ERROR + (distance > RADIUS ? 1.5 * 100 / RADIUS : 0);
+                assertEquals(name + " sample " + i, expected, state.getStrength(), tolerance);
+            }
+        }
+    }
+
+    private static double angleDifference(float angle, double expected)
+    {
+        double difference = Math.abs(angle - expected) % 360;
+        return Math.min(difference, 360 - difference);
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * The ring reads back from the oldest record to the newest under both rollover policies, also
+ * before the log is closed, a corrupt header is rejected, and the torn records are skipped.
+ */
+public class TelemetryLogTest
+{
+    private static final int CAPACITY = 4;
+    private static final int WRITTEN = 10;
+
+    private File path;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        path = File.createTempFile("telemetry", ".log");
+    }
+
+    @After
+    public void tearDown()
+    {
+        path.delete();
+    }
+
+    @Test
+    public void overwriteKeepsTheNewestRecords() throws IOException
+    {
+        // Read back while the log is still open, as after a crash
+        TelemetryLog log = new TelemetryLog(path, CAPACITY, TelemetryLog.ROLLOVER_OVERWRITE);
+        writeRecords(log, WRITTEN);
+        TelemetryLog.Reader reader = new TelemetryLog.Reader(path);
+        try {
+            assertEquals(CAPACITY, reader.size());
+            assertEquals(WRITTEN - CAPACITY, reader.getOverwrittenCount());
+            assertReadsInOrder(reader, WRITTEN - CAPACITY, CAPACITY);
+
+            reader.rewind();
+            assertReadsInOrder(reader, WRITTEN - CAPACITY, CAPACITY);
+        } finally {
+            reader.close();
+            log.close();
+        }
+    }
+
+    @Test
+    public void stopKeepsTheOldestRecords() throws IOException
+    {
+        TelemetryLog log = new TelemetryLog(path, CAPACITY, TelemetryLog.ROLLOVER_STOP);
+        writeRecords(log, WRITTEN);
+        log.close();
+        assertEquals(WRITTEN - CAPACITY, log.getDroppedCount());
+
+        TelemetryLog.Reader reader = new TelemetryLog.Reader(path);
+        try {
+            assertEquals(CAPACITY, reader.size());
+            assertEquals(0, reader.getOverwrittenCount());
+            assertReadsInOrder(reader, 0, CAPACITY);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void recordsOverwrittenWhileReadingAreSkipped() throws IOException
+    {
+        TelemetryLog log = new TelemetryLog(path, CAPACITY, TelemetryLog.ROLLOVER_OVERWRITE);
+        writeRecords(log, WRITTEN);
+        TelemetryLog.Reader reader = new TelemetryLog.Reader(path);
+        try {
+            // The ring laps the two oldest records the reader has not read yet
+            log.write(0, 0, 0, 0, 0, 0, 0);
+            log.write(0, 0, 0, 0, 0, 0, 0);
+
+            assertReadsInOrder(reader, WRITTEN - CAPACITY + 2, CAPACITY - 2);
+            assertEquals(2, reader.getTornCount());
+        } finally {
+            reader.close();
+            log.close();
+        }
+    }
+
+    @Test
+    public void halfWrittenRecordIsSkipped() throws IOException
+    {
+        TelemetryLog log = new TelemetryLog(path, CAPACITY, TelemetryLog.ROLLOVER_STOP);
+        writeRecords(log, 2);
+        log.close();
+
+        // The second record as left by a crash, before its sequence number was written back
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        file.seek(TelemetryLog.HEADER_SIZE + TelemetryLog.RECORD_SIZE + 8);
+        file.writeInt(Integer.reverseBytes(~1));
+        file.close();
+
+        TelemetryLog.Reader reader = new TelemetryLog.Reader(path);
+        try {
+            assertEquals(2, reader.size());
+            assertReadsInOrder(reader, 0, 1);
+            assertEquals(1, reader.getTornCount());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void corruptHeaderIsRejected() throws IOException
+    {
+        TelemetryLog log = new TelemetryLog(path, CAPACITY, TelemetryLog.ROLLOVER_OVERWRITE);
+        writeRecords(log, WRITTEN);
+        log.close();
+
+        // A capacity of 0 in the header
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        file.seek(12);
+        file.writeInt(0);
+        file.close();
+
+        try {
+            new TelemetryLog.Reader(path).close();
+            fail("Corrupt header accepted");
+        } catch (IOException e) {
+            assertEquals("Corrupt telemetry log", e.getMessage());
+        }
+    }
+
+    private static void writeRecords(TelemetryLog log, int count)
+    {
+        for (int i = 0; i < count; i++) {
+            log.write(1000 + i, i / 10f, -i / 10f, i * 10, i, i, -i);
+        }
+    }
+
+    /**
+     * Check that the reader holds the records written by writeRecords() from first, in order.
+     */
+    private static void assertReadsInOrder(TelemetryLog.Reader reader, int first, int count)
+    {
+        for (int i = first; i < first + count; i++) {
+            assertTrue(reader.next());
+            assertEquals(i, reader.getSequence());
+            assertEquals(1000 + i, reader.getEventTime());
+            assertEquals(i / 10f, reader.getX(), 0);
+            assertEquals(-i / 10f, reader.getY(), 0);
+            assertEquals(i * 10, reader.getAngle(), 0);
+            assertEquals(i, reader.getStrength(), 0);
+            assertEquals(i, reader.getPosX());
+            assertEquals(-i, reader.getPosY());
+        }
+        assertFalse(reader.next());
+    }
+}
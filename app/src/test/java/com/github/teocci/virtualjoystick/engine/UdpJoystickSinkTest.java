@@ -0,0 +1,118 @@
+package com.github.teocci.virtualjoystick.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * A gesture streamed to a loopback receiver, faster than real time so some values may be
+ * coalesced, arrives as whole packets in sequence, and the sent and coalesced counts add up.
+ */
+public class UdpJoystickSinkTest
+{
+    @Test
+    public void gestureArrivesInWholePacketsInSequence() throws IOException, InterruptedException
+    {
+        GestureTrace trace = GestureTrace.create(GestureTrace.CIRCLE, GestureTrace.DEFAULT_LENGTH);
+        int last = trace.length() - 1;
+        PacketReceiver receiver = new PacketReceiver(trace.eventTimes[last]);
+
+        JoystickController controller = new JoystickController();
+        controller.getState().setCenter(GestureTrace.CENTER, GestureTrace.CENTER);
+        controller.getState().setBorderRadius(GestureTrace.BORDER_RADIUS);
+        UdpJoystickSink sink = new UdpJoystickSink(receiver.getAddress());
+        controller.setOnPreciseMoveListener(sink);
+
+        // The receiver is drained along, its socket buffer would drop the packets otherwise
+        controller.onDown(trace.xs[0], trace.ys[0], trace.eventTimes[0]);
+        for (int i = 1; i < last; i++) {
+            controller.onMove(trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+            controller.dispatch(trace.eventTimes[i]);
+            receiver.poll();
+        }
+        controller.onUp(trace.xs[last], trace.ys[last], trace.eventTimes[last]);
+
+        long deadline = System.nanoTime() + 2000 * 1000000L;
+        while (!receiver.releaseReceived && System.nanoTime() < deadline) {
+            if (!receiver.poll()) Thread.sleep(1);
+        }
+        sink.close();
+        receiver.close();
+
+        assertTrue(receiver.whole);
+        assertTrue(receiver.inSequence);
+        assertTrue(receiver.releaseReceived);
+
+        long offered = sink.getOfferedCount();
+        assertTrue(offered > 1);
+        assertEquals(0, sink.getErrorCount());
+        assertEquals(receiver.received, sink.getSentCount());
+        assertEquals(offered - receiver.received, sink.getCoalescedCount());
+    }
+
+    /**
+     * Non-blocking UDP receiver checking the JoystickPackets as they arrive.
+     */
+    private static class PacketReceiver
+    {
+        final DatagramChannel channel;
+        final ByteBuffer packet = ByteBuffer.allocate(2 * JoystickPacket.SIZE);
+        final long releaseTime;
+
+        int received;
+        boolean whole = true;
+        boolean inSequence = true;
+        boolean releaseReceived;
+
+        PacketReceiver(long releaseTime) throws IOException
+        {
+            this.releaseTime = releaseTime;
+            channel = DatagramChannel.open();
+            channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            channel.configureBlocking(false);
+        }
+
+        InetSocketAddress getAddress() throws IOException
+        {
+            return (InetSocketAddress) channel.getLocalAddress();
+        }
+
+        /**
+         * Receive the packets waiting in the socket buffer.
+         *
+         * @return True if at least one was received
+         */
+        boolean poll() throws IOException
+        {
+            boolean any = false;
+            while (true) {
+                packet.clear();
+                if (channel.receive(packet) == null) return any;
+                packet.flip();
+
+                whole &= packet.remaining() == JoystickPacket.SIZE && JoystickPacket.isValid(packet);
+                inSequence &= JoystickPacket.getSequence(packet) == received;
+                releaseReceived = JoystickPacket.getEventTime(packet) == releaseTime
+                        && JoystickPacket.getStrength(packet) == 0;
+                received++;
+                any = true;
+            }
+        }
+
+        void close() throws IOException
+        {
+            channel.close();
+        }
+    }
+}
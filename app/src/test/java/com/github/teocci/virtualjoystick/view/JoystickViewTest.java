@@ -0,0 +1,217 @@
+package com.github.teocci.virtualjoystick.view;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.github.teocci.virtualjoystick.BuildConfig;
+import com.github.teocci.virtualjoystick.dispatch.DispatchScheduler;
+import com.github.teocci.virtualjoystick.engine.SampleBatch;
+import com.github.teocci.virtualjoystick.interfaces.OnMoveBatchListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * JoystickView driven by synthetic MotionEvents, with the dispatch ticks of the main Looper
+ * advanced by hand.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class JoystickViewTest
+{
+    private static final int SIZE = 600;
+    private static final int CENTER = SIZE / 2;
+    private static final int LOOP_INTERVAL = 50;
+
+    private JoystickView view;
+    private int radius;
+    private long downTime;
+
+    // Values received by the callback
+    private int callbackCount;
+    private float lastStrength = -1;
+    private float lastAngle = -1;
+
+    @Before
+    public void setUp()
+    {
+        // The Handler path, the Choreographer one follows the frames instead of the clock
+        DispatchScheduler.getInstance().setFrameAligned(false);
+
+        view = new JoystickView(RuntimeEnvironment.application);
+        view.measure(
+                View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY)
+        );
+        view.layout(0, 0, SIZE, SIZE);
+        radius = view.getController().getState().getBorderRadius();
+
+        view.setOnPreciseMoveListener(new OnPreciseMoveListener()
+        {
+            @Override
+            public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+            {
+                callbackCount++;
+                lastStrength = strength;
+                lastAngle = angle;
+            }
+        }, LOOP_INTERVAL);
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (view.isDispatching()) {
+            touch(MotionEvent.ACTION_CANCEL, CENTER, CENTER);
+        }
+        DispatchScheduler.getInstance().setFrameAligned(true);
+    }
+
+    @Test
+    public void downDispatchesRightAway()
+    {
+        touch(MotionEvent.ACTION_DOWN, CENTER + radius, CENTER);
+
+        assertEquals(1, callbackCount);
+        assertEquals(100, lastStrength, 0.01f);
+        assertEquals(0, lastAngle, 0.01f);
+    }
+
+    @Test
+    public void heldButtonDispatchesEveryLoopInterval()
+    {
+        touch(MotionEvent.ACTION_DOWN, CENTER, CENTER - radius);
+        advance(10 * LOOP_INTERVAL);
+
+        assertEquals(10, view.getTickCount());
+        assertEquals(1 + 10, callbackCount);
+        assertEquals(90, lastAngle, 0.01f);
+    }
+
+    @Test
+    public void moveIsDispatchedOnTheNextTick()
+    {
+        touch(MotionEvent.ACTION_DOWN, CENTER, CENTER);
+        touch(MotionEvent.ACTION_MOVE, CENTER - radius, CENTER);
+        assertEquals(1, callbackCount);
+
+        advance(LOOP_INTERVAL);
+        assertEquals(2, callbackCount);
+        assertEquals(180, lastAngle, 0.01f);
+    }
+
+    @Test
+    public void releaseDispatchesTheRestPositionAndStopsTheTicks()
+    {
+        touch(MotionEvent.ACTION_DOWN, CENTER + radius, CENTER);
+        advance(2 * LOOP_INTERVAL);
+        touch(MotionEvent.ACTION_UP, CENTER + radius, CENTER);
+
+        assertEquals(0, lastStrength, 0);
+        assertFalse(view.isDispatching());
+
+        long ticks = view.getTickCount();
+        int callbacks = callbackCount;
+        advance(10 * LOOP_INTERVAL);
+        assertEquals(ticks, view.getTickCount());
+        assertEquals(callbacks, callbackCount);
+    }
+
+    @Test
+    public void cancelReleasesTheButton()
+    {
+        touch(MotionEvent.ACTION_DOWN, CENTER + radius, CENTER);
+        touch(MotionEvent.ACTION_CANCEL, CENTER + radius, CENTER);
+
+        assertEquals(0, lastStrength, 0);
+        assertEquals(0, view.getController().getState().getStrength(), 0);
+        assertFalse(view.isDispatching());
+    }
+
+    @Test
+    public void buttonStaysInsideTheBorder()
+    {
+        touch(MotionEvent.ACTION_DOWN, CENTER, CENTER);
+        touch(MotionEvent.ACTION_MOVE, SIZE, SIZE);
+
+        double distance = Math.hypot(
+                view.getController().getState().getPosX() - CENTER,
+                view.getController().getState().getPosY() - CENTER
+        );
+        assertTrue(distance <= radius);
+        assertEquals(100, view.getController().getState().getStrength(), 0.01f);
+    }
+
+    @Test
+    public void batchHoldsTheHistoricalSamples()
+    {
+        final List<Float> batched = new ArrayList<>();
+        view.setOnMoveBatchListener(new OnMoveBatchListener()
+        {
+            @Override
+            public void onMoveBatch(SampleBatch batch)
+            {
+                for (int i = 0; i < batch.size(); i++) {
+                    batched.add(batch.getX(i));
+                }
+            }
+        });
+
+        touch(MotionEvent.ACTION_DOWN, CENTER, CENTER);
+        long now = SystemClock.uptimeMillis();
+        MotionEvent move = MotionEvent.obtain(downTime, now, MotionEvent.ACTION_MOVE, CENTER + radius / 2, CENTER, 0);
+        move.addBatch(now + 4, CENTER + radius, CENTER, 1, 1, 0);
+        view.dispatchTouchEvent(move);
+        move.recycle();
+        advance(LOOP_INTERVAL);
+
+        // The down, then the historical sample and the current one of the move
+        assertEquals(3, batched.size());
+        assertEquals(0, batched.get(0), 0.01f);
+        assertEquals(0.5f, batched.get(1), 0.01f);
+        assertEquals(1, batched.get(2), 0.01f);
+    }
+
+    @Test
+    public void idleViewIsNotTicked()
+    {
+        advance(10 * LOOP_INTERVAL);
+
+        assertEquals(0, view.getTickCount());
+        assertEquals(0, callbackCount);
+    }
+
+    private void touch(int action, int x, int y)
+    {
+        long now = SystemClock.uptimeMillis();
+        if (action == MotionEvent.ACTION_DOWN) downTime = now;
+
+        MotionEvent event = MotionEvent.obtain(downTime, now, action, x, y, 0);
+        view.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private static void advance(long millis)
+    {
+        Robolectric.getForegroundThreadScheduler().advanceBy(millis);
+    }
+}
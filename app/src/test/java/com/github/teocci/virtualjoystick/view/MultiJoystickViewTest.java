@@ -0,0 +1,144 @@
+package com.github.teocci.virtualjoystick.view;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.github.teocci.virtualjoystick.BuildConfig;
+import com.github.teocci.virtualjoystick.dispatch.DispatchScheduler;
+import com.github.teocci.virtualjoystick.engine.StickFrame;
+import com.github.teocci.virtualjoystick.interfaces.OnMultiMoveListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * MultiJoystickView driven by synthetic MotionEvents, with the dispatch ticks of the main Looper
+ * advanced by hand.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class MultiJoystickViewTest
+{
+    private static final int ZONE = 300;
+    private static final int LOOP_INTERVAL = 50;
+
+    private MultiJoystickView view;
+    private int radius;
+    private long downTime;
+
+    // Values received by the callback
+    private int callbackCount;
+    private float lastStrength = -1;
+    private boolean lastActive;
+
+    @Before
+    public void setUp()
+    {
+        // The Handler path, the Choreographer one follows the frames instead of the clock
+        DispatchScheduler.getInstance().setFrameAligned(false);
+
+        view = new MultiJoystickView(RuntimeEnvironment.application);
+        view.measure(
+                View.MeasureSpec.makeMeasureSpec(2 * ZONE, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(ZONE, View.MeasureSpec.EXACTLY)
+        );
+        view.layout(0, 0, 2 * ZONE, ZONE);
+        radius = view.getController(0).getState().getBorderRadius();
+
+        view.setOnMultiMoveListener(new OnMultiMoveListener()
+        {
+            @Override
+            public void onMultiMove(StickFrame frame)
+            {
+                callbackCount++;
+                lastStrength = frame.getStrength(0);
+                lastActive = frame.isActive(0);
+            }
+        }, LOOP_INTERVAL);
+    }
+
+    @After
+    public void tearDown()
+    {
+        touch(MotionEvent.ACTION_CANCEL, ZONE / 2, ZONE / 2);
+        DispatchScheduler.getInstance().setFrameAligned(true);
+    }
+
+    @Test
+    public void downDispatchesRightAway()
+    {
+        touch(MotionEvent.ACTION_DOWN, ZONE / 2 + radius, ZONE / 2);
+
+        assertEquals(1, callbackCount);
+        assertEquals(100, lastStrength, 0.01f);
+        assertTrue(lastActive);
+        assertEquals(1, view.getActiveStickCount());
+    }
+
+    @Test
+    public void heldStickDispatchesEveryLoopInterval()
+    {
+        touch(MotionEvent.ACTION_DOWN, ZONE / 2, ZONE / 2 - radius);
+        advance(10 * LOOP_INTERVAL);
+
+        assertEquals(10, view.getTickCount());
+        assertEquals(1 + 10, callbackCount);
+    }
+
+    @Test
+    public void releaseDispatchesTheRestPositionAndStopsTheTicks()
+    {
+        touch(MotionEvent.ACTION_DOWN, ZONE / 2 + radius, ZONE / 2);
+        advance(2 * LOOP_INTERVAL);
+        touch(MotionEvent.ACTION_UP, ZONE / 2 + radius, ZONE / 2);
+
+        assertEquals(0, lastStrength, 0);
+        assertFalse(lastActive);
+        assertEquals(0, view.getActiveStickCount());
+
+        long ticks = view.getTickCount();
+        advance(10 * LOOP_INTERVAL);
+        assertEquals(ticks, view.getTickCount());
+    }
+
+    @Test
+    public void downOutsideOfTheZonesIsIgnored()
+    {
+        touch(MotionEvent.ACTION_DOWN, ZONE / 2, ZONE + 10);
+        advance(2 * LOOP_INTERVAL);
+
+        assertEquals(0, callbackCount);
+        assertEquals(0, view.getActiveStickCount());
+        assertEquals(0, view.getTickCount());
+    }
+
+    private void touch(int action, int x, int y)
+    {
+        long now = SystemClock.uptimeMillis();
+        if (action == MotionEvent.ACTION_DOWN) downTime = now;
+
+        MotionEvent event = MotionEvent.obtain(downTime, now, action, x, y, 0);
+        view.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private static void advance(long millis)
+    {
+        Robolectric.getForegroundThreadScheduler().advanceBy(millis);
+    }
+}
@@ -0,0 +1,236 @@
+package com.github.teocci.virtualjoystick.benchmark;
+
+import com.github.teocci.virtualjoystick.engine.AdaptiveRateController;
+import com.github.teocci.virtualjoystick.engine.GestureRecorder;
+import com.github.teocci.virtualjoystick.engine.GestureTrace;
+import com.github.teocci.virtualjoystick.engine.InputPipeline;
+import com.github.teocci.virtualjoystick.engine.JoystickController;
+import com.github.teocci.virtualjoystick.engine.LatencyMonitor;
+import com.github.teocci.virtualjoystick.engine.MotionPredictor;
+import com.github.teocci.virtualjoystick.engine.SampleBatch;
+import com.github.teocci.virtualjoystick.engine.TelemetryLog;
+import com.github.teocci.virtualjoystick.interfaces.OnMoveBatchListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Allocation audit of the touch and dispatch path, run by the check task. Every gesture trace is
+ * driven through a JoystickController, as JoystickView does from its MotionEvents and scheduler
+ * ticks, once with the default configuration and once with every feature of the hot path enabled.
+ * The gestures are warmed up until the JIT compilation settles, then the bytes allocated by the
+ * thread are measured with the HotSpot ThreadMXBean over several rounds. A recompilation during a
+ * round can briefly defeat the escape analysis, so the audit keeps the smallest round and fails
+ * only if every round allocates.
+ */
+public final class AllocationAudit
+{
+    private static final int EVENTS_PER_TICK = 6;
+    private static final int WARM_UP_GESTURES = 100;
+    private static final int MEASURED_GESTURES = 50;
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Warm up batches without compilation before the compilation is considered settled, and
+     * the cap on the number of batches
+     */
+    private static final int SETTLED_BATCHES = 3;
+    private static final int MAX_WARM_UP_BATCHES = 100;
+
+    /**
+     * Bytes allowed per measurement, for the measurement itself
+     */
+    private static final long TOLERANCE = 64;
+
+    private static final String[] TRACES = {
+            GestureTrace.CIRCLE, GestureTrace.FLICK, GestureTrace.HOLD, GestureTrace.RANDOM_WALK
+    };
+
+    private static float sink;
+
+    private AllocationAudit() {}
+
+    public static void main(String[] args) throws IOException
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            System.out.println("AllocationAudit: thread allocation is not measurable on this JVM, skipped");
+            return;
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        int failures = 0;
+        for (String name : TRACES) {
+            GestureTrace trace = GestureTrace.create(name, GestureTrace.DEFAULT_LENGTH / 4);
+
+            for (int full = 0; full < 2; full++) {
+                JoystickController controller = createController(full == 1);
+
+                warmUp(controller, trace);
+
+                // Calibrates the cost of the measurement itself
+                long calibration = threadBean.getThreadAllocatedBytes(threadId);
+                calibration = threadBean.getThreadAllocatedBytes(threadId) - calibration;
+
+                long allocated = Long.MAX_VALUE;
+                for (int round = 0; round < MEASURED_ROUNDS && allocated > 0; round++) {
+                    long before = threadBean.getThreadAllocatedBytes(threadId);
+                    for (int i = 0; i < MEASURED_GESTURES; i++) {
+                        drive(controller, trace);
+                    }
+                    allocated = Math.min(allocated,
+                            threadBean.getThreadAllocatedBytes(threadId) - before - calibration);
+                }
+
+                long events = (long) MEASURED_GESTURES * trace.length();
+                boolean failed = allocated > TOLERANCE;
+                System.out.println("AllocationAudit: " + name + (full == 1 ? " (all features)" : "")
+                        + ": " + allocated + " bytes over " + events + " events"
+                        + (failed ? " FAILED" : ""));
+                if (failed) failures++;
+            }
+        }
+
+        if (failures > 0) {
+            System.err.println("AllocationAudit: " + failures + " configuration(s) allocate on the hot path");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param full True to enable the fast math, the input pipeline, the predictor, the batch
+     *             listener, the on-change dispatch, the latency monitor, the recorder, the
+     *             telemetry log and the adaptive rate
+     * @return a controller set up like a JoystickView of GestureTrace.VIEW_SIZE
+     */
+    private static JoystickController createController(boolean full) throws IOException
+    {
+        JoystickController controller = new JoystickController();
+        controller.getState().setCenter(GestureTrace.CENTER, GestureTrace.CENTER);
+        controller.getState().setBorderRadius(GestureTrace.BORDER_RADIUS);
+        controller.getChangeGate().setMinInterval(EVENTS_PER_TICK * GestureTrace.SAMPLE_INTERVAL);
+        controller.setOnPreciseMoveListener(new OnPreciseMoveListener()
+        {
+            @Override
+            public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+            {
+                sink += x + y + angle + strength + eventTime;
+            }
+        });
+
+        if (full) {
+            controller.getState().setFastMath(true);
+
+            InputPipeline pipeline = new InputPipeline();
+            pipeline.setRadialDeadZone(0.05f, 0.95f);
+            pipeline.setAxialDeadZone(0.05f);
+            pipeline.setExpo(0.3f);
+            pipeline.setOneEuroFilter(1, 0.5f);
+            controller.getState().setInputPipeline(pipeline);
+
+            controller.getState().setMotionPredictor(new MotionPredictor());
+
+            controller.setOnMoveBatchListener(new OnMoveBatchListener()
+            {
+                @Override
+                public void onMoveBatch(SampleBatch batch)
+                {
+                    for (int i = 0; i < batch.size(); i++) {
+                        sink += batch.getX(i) + batch.getY(i);
+                    }
+                }
+            }, SampleBatch.DEFAULT_CAPACITY);
+
+            controller.setDispatchMode(JoystickController.DISPATCH_MODE_ON_CHANGE);
+            controller.getChangeGate().setHeartbeatInterval(100);
+            controller.setLatencyMonitor(new LatencyMonitor());
+            controller.setAdaptiveRateController(new AdaptiveRateController());
+            controller.setGestureRecorder(new GestureRecorder(new DiscardChannel(), 256));
+
+            File file = File.createTempFile("telemetry", ".log");
+            file.deleteOnExit();
+            controller.setTelemetryLog(new TelemetryLog(file, 1024, TelemetryLog.ROLLOVER_OVERWRITE));
+        }
+
+        return controller;
+    }
+
+    /**
+     * Drive the gesture until the JIT compiler stops compiling, i.e. SETTLED_BATCHES batches in a
+     * row without any compilation time. Without compilation time monitoring it runs a fixed number
+     * of batches.
+     */
+    private static void warmUp(JoystickController controller, GestureTrace trace)
+    {
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean monitored = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+
+        long lastTime = monitored ? compilation.getTotalCompilationTime() : 0;
+        int settled = 0;
+        for (int batch = 0; batch < MAX_WARM_UP_BATCHES && settled < SETTLED_BATCHES; batch++) {
+            for (int i = 0; i < WARM_UP_GESTURES; i++) {
+                drive(controller, trace);
+            }
+
+            if (!monitored) {
+                settled++;
+                continue;
+            }
+            long time = compilation.getTotalCompilationTime();
+            settled = time == lastTime ? settled + 1 : 0;
+            lastTime = time;
+        }
+    }
+
+    /**
+     * Drive a whole gesture: the first sample goes down, the last one goes up, and a dispatch
+     * tick runs every EVENTS_PER_TICK samples.
+     */
+    private static void drive(JoystickController controller, GestureTrace trace)
+    {
+        int last = trace.length() - 1;
+        controller.onDown(trace.xs[0], trace.ys[0], trace.eventTimes[0]);
+        for (int i = 1; i < last; i++) {
+            controller.onMove(trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+            if (i % EVENTS_PER_TICK == 0) {
+                controller.dispatch(trace.eventTimes[i]);
+            }
+        }
+        controller.onUp(trace.xs[last], trace.ys[last], trace.eventTimes[last]);
+    }
+
+    /**
+     * Channel consuming the recorded bytes, so the recorder buffer is drained without I/O.
+     */
+    private static class DiscardChannel implements WritableByteChannel
+    {
+        @Override
+        public int write(ByteBuffer src)
+        {
+            int remaining = src.remaining();
+            src.position(src.limit());
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.teocci.virtualjoystick.benchmark;
+
+import com.github.teocci.virtualjoystick.dispatch.MoveListenerAdapter;
+import com.github.teocci.virtualjoystick.engine.ChangeGate;
+import com.github.teocci.virtualjoystick.engine.GestureTrace;
+import com.github.teocci.virtualjoystick.engine.JoystickState;
+import com.github.teocci.virtualjoystick.interfaces.OnMoveListener;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Cost of one dispatch tick, as done by JoystickView.onDispatch: the change gate and the
+ * listener invocation, either precise or through the OnMoveListener adapter.
+ * The trace is sampled by one tick every 6 events, that is the default 50 ms loop interval
+ * over a 120 Hz touch stream. One operation is one tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark
+{
+    private static final int EVENTS_PER_TICK = 6;
+    private static final int TICKS = GestureTrace.DEFAULT_LENGTH / EVENTS_PER_TICK;
+
+    @Param({GestureTrace.CIRCLE, GestureTrace.HOLD})
+    public String trace;
+
+    @Param({"false", "true"})
+    public boolean onChange;
+
+    @Param({"false", "true"})
+    public boolean adapter;
+
+    private JoystickState[] ticks;
+    private ChangeGate changeGate;
+    private OnPreciseMoveListener callback;
+
+    @Setup
+    public void setUp(final Blackhole blackhole)
+    {
+        GestureTrace gesture = GestureTrace.create(trace, GestureTrace.DEFAULT_LENGTH);
+
+        // Precomputes the state seen by every tick, so only the dispatch is measured
+        ticks = new JoystickState[TICKS];
+        for (int i = 0; i < TICKS; i++) {
+            int index = i * EVENTS_PER_TICK;
+            ticks[i] = new JoystickState();
+            ticks[i].setCenter(GestureTrace.CENTER, GestureTrace.CENTER);
+            ticks[i].setBorderRadius(GestureTrace.BORDER_RADIUS);
+            ticks[i].moveTo(gesture.xs[index], gesture.ys[index], gesture.eventTimes[index]);
+        }
+
+        changeGate = new ChangeGate();
+        changeGate.setMinInterval(EVENTS_PER_TICK * GestureTrace.SAMPLE_INTERVAL);
+
+        if (adapter) {
+            callback = new MoveListenerAdapter(new OnMoveListener()
+            {
+                @Override
+                public void onMove(int angle, int strength)
+                {
+                    blackhole.consume(angle);
+                    blackhole.consume(strength);
+                }
+            });
+        } else {
+            callback = new OnPreciseMoveListener()
+            {
+                @Override
+                public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+                {
+                    blackhole.consume(x);
+                    blackhole.consume(y);
+                    blackhole.consume(eventTime);
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void dispatchTick()
+    {
+        for (int i = 0; i < TICKS; i++) {
+            JoystickState state = ticks[i];
+            long now = state.getEventTime();
+
+            if (changeGate.offer((int) state.getAngle(), (int) state.getStrength(), now, !onChange)) {
+                callback.onPreciseMove(
+                        state.getX(),
+                        state.getY(),
+                        state.getAngle(),
+                        state.getStrength(),
+                        state.getEventTime()
+                );
+            }
+        }
+        changeGate.reset();
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.teocci.virtualjoystick.benchmark;
+
+import com.github.teocci.virtualjoystick.engine.GestureRecorder;
+import com.github.teocci.virtualjoystick.engine.GestureReplayer;
+import com.github.teocci.virtualjoystick.engine.GestureTrace;
+import com.github.teocci.virtualjoystick.engine.JoystickController;
+import com.github.teocci.virtualjoystick.engine.LatencyHistogram;
+import com.github.teocci.virtualjoystick.interfaces.OnPreciseMoveListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Headless performance budgets, run by the check task. It drives the synthetic gesture traces
+ * through a JoystickController, the path JoystickView delegates its MotionEvents and scheduler
+ * ticks to, and checks:
+ * - jitter: the callback intervals of a real time replay stay close to the loop interval
+ * - cost: the time per touch event stays under its budget
+ *
+ * The behaviors themselves are covered by the unit tests of the app. The budgets are generous
+ * enough for a shared CI box, they catch regressions of an order of magnitude rather than noise.
+ * The suite exits with an error if any check fails.
+ */
+public final class RegressionSuite
+{
+    private static final int EVENTS_PER_TICK = 6;
+    private static final int LOOP_INTERVAL = EVENTS_PER_TICK * GestureTrace.SAMPLE_INTERVAL;
+
+    private static final String[] TRACES = {
+            GestureTrace.CIRCLE, GestureTrace.FLICK, GestureTrace.HOLD, GestureTrace.RANDOM_WALK
+    };
+
+    // Budgets
+    private static final long MAX_MEDIAN_JITTER_NANOS = 2 * 1000000L;
+    private static final long MAX_JITTER_NANOS = LOOP_INTERVAL * 1000000L;
+    private static final long MAX_NANOS_PER_EVENT = 2000;
+
+    private static int failures;
+
+    // Values received by the callback
+    private static int callbackCount;
+    private static final LatencyHistogram jitter = new LatencyHistogram();
+    private static long lastCallbackNanos;
+
+    private static final OnPreciseMoveListener COUNTER = new OnPreciseMoveListener()
+    {
+        @Override
+        public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+        {
+            callbackCount++;
+        }
+    };
+
+    private RegressionSuite() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        for (String name : TRACES) {
+            checkCost(name, GestureTrace.create(name, GestureTrace.DEFAULT_LENGTH));
+        }
+        checkJitter();
+
+        if (failures > 0) {
+            System.err.println("RegressionSuite: " + failures + " check(s) failed");
+            System.exit(1);
+        }
+    }
+
+    private static void checkCost(String name, GestureTrace trace)
+    {
+        JoystickController controller = createController();
+
+        // Warm up, then keeps the best of a few runs to be robust to the CI noise
+        for (int i = 0; i < 200; i++) {
+            trace.drive(controller, LOOP_INTERVAL);
+        }
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                trace.drive(controller, LOOP_INTERVAL);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / (20L * trace.length()));
+        }
+
+        report(name + " cost", best <= MAX_NANOS_PER_EVENT, best + " ns per event");
+    }
+
+    private static void checkJitter() throws IOException, InterruptedException
+    {
+        // Two seconds of circle, replayed in real time
+        GestureTrace trace = GestureTrace.create(GestureTrace.CIRCLE, 2000 / GestureTrace.SAMPLE_INTERVAL);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GestureRecorder recorder = new GestureRecorder(Channels.newChannel(bytes));
+        for (int i = 0; i < trace.length(); i++) {
+            int action = i == 0 ? GestureRecorder.ACTION_DOWN
+                    : i == trace.length() - 1 ? GestureRecorder.ACTION_UP : GestureRecorder.ACTION_MOVE;
+            recorder.record(action, trace.xs[i], trace.ys[i], trace.eventTimes[i]);
+        }
+        recorder.close();
+
+        JoystickController controller = createController();
+        controller.setOnPreciseMoveListener(new OnPreciseMoveListener()
+        {
+            @Override
+            public void onPreciseMove(float x, float y, float angle, float strength, long eventTime)
+            {
+                // The release is dispatched right away, not by the timer
+                if (strength == 0) return;
+
+                long now = System.nanoTime();
+                if (lastCallbackNanos != 0) {
+                    jitter.record(Math.abs(now - lastCallbackNanos - LOOP_INTERVAL * 1000000L));
+                }
+                lastCallbackNanos = now;
+            }
+        });
+
+        // The first replay warms the path up, the second one is measured
+        for (int run = 0; run < 2; run++) {
+            jitter.reset();
+            lastCallbackNanos = 0;
+            GestureReplayer replayer = new GestureReplayer(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+            replayer.replay(controller, LOOP_INTERVAL, 1);
+            replayer.close();
+        }
+
+        // The median catches a drifting timer, the p99 a skipped tick, the OS scheduler aside
+        long p50 = jitter.getValueAtPercentile(50);
+        long p99 = jitter.getValueAtPercentile(99);
+        report("loop interval jitter", p50 <= MAX_MEDIAN_JITTER_NANOS && p99 <= MAX_JITTER_NANOS,
+                "p50 " + p50 / 1000 + " us, p99 " + p99 / 1000 + " us");
+    }
+
+    private static JoystickController createController()
+    {
+        JoystickController controller = new JoystickController();
+        controller.getState().setCenter(GestureTrace.CENTER, GestureTrace.CENTER);
+        controller.getState().setBorderRadius(GestureTrace.BORDER_RADIUS);
+        controller.getChangeGate().setMinInterval(LOOP_INTERVAL);
+        controller.setOnPreciseMoveListener(COUNTER);
+        return controller;
+    }
+
+    private static void report(String check, boolean passed, String detail)
+    {
+        System.out.println("RegressionSuite: " + (passed ? "PASS " : "FAIL ") + check + ": " + detail);
+        if (!passed) failures++;
+    }
+}
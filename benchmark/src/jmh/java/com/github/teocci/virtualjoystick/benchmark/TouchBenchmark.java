@@ -0,0 +1,67 @@
+package com.github.teocci.virtualjoystick.benchmark;
+
+import com.github.teocci.virtualjoystick.engine.GestureTrace;
+import com.github.teocci.virtualjoystick.engine.JoystickState;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by teocci.
+ *
+ * @author teocci@yandex.com on 2026/Oct/17
+ *
+ * Cost of one simulated touch event: the clamp to the border and the computation of the
+ * angle and the strength, as done by JoystickView.onTouchEvent for every sample.
+ * One operation is one touch event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TouchBenchmark
+{
+    @Param({GestureTrace.CIRCLE, GestureTrace.FLICK, GestureTrace.HOLD, GestureTrace.RANDOM_WALK})
+    public String trace;
+
+    @Param({"false", "true"})
+    public boolean fastMath;
+
+    private GestureTrace gesture;
+    private JoystickState state;
+
+    @Setup
+    public void setUp()
+    {
+        gesture = GestureTrace.create(trace, GestureTrace.DEFAULT_LENGTH);
+
+        state = new JoystickState();
+        state.setCenter(GestureTrace.CENTER, GestureTrace.CENTER);
+        state.setBorderRadius(GestureTrace.BORDER_RADIUS);
+        state.setFastMath(fastMath);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GestureTrace.DEFAULT_LENGTH)
+    public void touchEvent(Blackhole blackhole)
+    {
+        int[] xs = gesture.xs;
+        int[] ys = gesture.ys;
+        long[] eventTimes = gesture.eventTimes;
+
+        for (int i = 0; i < xs.length; i++) {
+            state.moveTo(xs[i], ys[i], eventTimes[i]);
+            blackhole.consume(state.getAngle());
+            blackhole.consume(state.getStrength());
+        }
+    }
+}